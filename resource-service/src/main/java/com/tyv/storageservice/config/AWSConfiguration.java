@@ -7,6 +7,7 @@ import org.springframework.context.annotation.Profile;
 import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 @Configuration
 @Profile("awsStorage")
@@ -20,8 +21,13 @@ public class AWSConfiguration {
     }
 
     @Bean
-    public S3AsyncClient s3AsyncClient() {
-        return S3AsyncClient.builder()
+    public S3AsyncClient s3AsyncClient(S3AsyncClientFactory s3AsyncClientFactory) {
+        return s3AsyncClientFactory.create(Region.of(REGION), EnvironmentVariableCredentialsProvider.create(), null);
+    }
+
+    @Bean
+    public S3Presigner s3Presigner() {
+        return S3Presigner.builder()
                 .region(Region.of(REGION))
                 .credentialsProvider(EnvironmentVariableCredentialsProvider.create())
                 .build();
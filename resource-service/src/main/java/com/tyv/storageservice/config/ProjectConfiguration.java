@@ -1,9 +1,50 @@
 package com.tyv.storageservice.config;
 
+import com.tyv.storageservice.enums.BlockingSchedulerType;
+import com.tyv.storageservice.service.CachingFileStorage;
+import com.tyv.storageservice.service.FileStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.util.unit.DataSize;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
 
 @Configuration
-@EnableJpaAuditing
+@EnableR2dbcAuditing
+@EnableR2dbcRepositories
 public class ProjectConfiguration {
+
+    /**
+     * Scheduler for calls that block (local file system access). boundedElastic caps the number of threads
+     * at 10 x cores and queues the rest, virtual threads are not capped.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler(
+            @Value("${storage.blocking-scheduler:BOUNDED_ELASTIC}") BlockingSchedulerType type) {
+        return switch (type) {
+            case BOUNDED_ELASTIC -> Schedulers.boundedElastic();
+            case VIRTUAL_THREADS -> Schedulers.fromExecutorService(
+                    Executors.newVirtualThreadPerTaskExecutor(), "storage-virtual");
+        };
+    }
+
+    /**
+     * Wraps the profile's {@link FileStorage} with an off-heap cache for small files.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "storage.byte-cache.enabled", havingValue = "true")
+    public FileStorage cachingFileStorage(FileStorage fileStorage, MeterRegistry meterRegistry,
+                                          @Value("${storage.byte-cache.maximum-size:256MB}") DataSize maximumSize,
+                                          @Value("${storage.byte-cache.max-object-size:256KB}") DataSize maxObjectSize) {
+        return new CachingFileStorage(fileStorage, meterRegistry, maximumSize, maxObjectSize);
+    }
 }
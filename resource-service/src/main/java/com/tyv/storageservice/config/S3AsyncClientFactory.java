@@ -0,0 +1,118 @@
+package com.tyv.storageservice.config;
+
+import com.tyv.storageservice.enums.S3ClientType;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+import software.amazon.awssdk.services.s3.S3CrtAsyncClientBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Builds the {@link S3AsyncClient} selected by storage.aws.client.type.
+ * NETTY is the regular SDK client over a tuned Netty connection pool, the pool is exported to Micrometer.
+ * CRT is the AWS Common Runtime client: it splits large uploads and downloads into parts and transfers them
+ * in parallel to reach the target throughput. The CRT client does not publish SDK metrics.
+ */
+@Component
+@Profile({"awsStorage", "awsStorageTest"})
+@RequiredArgsConstructor
+public class S3AsyncClientFactory {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${storage.aws.client.type:NETTY}")
+    private S3ClientType type;
+
+    @Value("${storage.aws.client.netty.max-concurrency:100}")
+    private int maxConcurrency;
+
+    @Value("${storage.aws.client.netty.max-pending-connection-acquires:10000}")
+    private int maxPendingConnectionAcquires;
+
+    @Value("${storage.aws.client.netty.connection-acquisition-timeout:10s}")
+    private Duration connectionAcquisitionTimeout;
+
+    @Value("${storage.aws.client.netty.connection-timeout:2s}")
+    private Duration connectionTimeout;
+
+    @Value("${storage.aws.client.netty.read-timeout:30s}")
+    private Duration readTimeout;
+
+    @Value("${storage.aws.client.netty.write-timeout:30s}")
+    private Duration writeTimeout;
+
+    @Value("${storage.aws.client.netty.connection-max-idle-time:60s}")
+    private Duration connectionMaxIdleTime;
+
+    @Value("${storage.aws.client.crt.target-throughput-gbps:10}")
+    private double targetThroughputGbps;
+
+    @Value("${storage.aws.client.crt.max-concurrency:0}")
+    private int crtMaxConcurrency;
+
+    @Value("${storage.aws.client.crt.minimum-part-size:8MB}")
+    private DataSize minimumPartSize;
+
+    @Value("${storage.aws.client.crt.connection-timeout:2s}")
+    private Duration crtConnectionTimeout;
+
+    /**
+     * @param endpointOverride S3 compatible endpoint (LocalStack, MinIO) or null for AWS,
+     *                         buckets are addressed path-style when it is set
+     */
+    public S3AsyncClient create(Region region, AwsCredentialsProvider credentialsProvider, URI endpointOverride) {
+        return switch (type) {
+            case NETTY -> createNetty(region, credentialsProvider, endpointOverride);
+            case CRT -> createCrt(region, credentialsProvider, endpointOverride);
+        };
+    }
+
+    private S3AsyncClient createNetty(Region region, AwsCredentialsProvider credentialsProvider, URI endpointOverride) {
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
+                .region(region)
+                .credentialsProvider(credentialsProvider)
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConcurrency)
+                        .maxPendingConnectionAcquires(maxPendingConnectionAcquires)
+                        .connectionAcquisitionTimeout(connectionAcquisitionTimeout)
+                        .connectionTimeout(connectionTimeout)
+                        .readTimeout(readTimeout)
+                        .writeTimeout(writeTimeout)
+                        .connectionMaxIdleTime(connectionMaxIdleTime)
+                        .tcpKeepAlive(true))
+                .overrideConfiguration(configuration -> configuration
+                        .addMetricPublisher(new S3ClientMetricPublisher(meterRegistry)));
+        if (nonNull(endpointOverride)) {
+            builder.endpointOverride(endpointOverride).forcePathStyle(true);
+        }
+        return builder.build();
+    }
+
+    private S3AsyncClient createCrt(Region region, AwsCredentialsProvider credentialsProvider, URI endpointOverride) {
+        S3CrtAsyncClientBuilder builder = S3AsyncClient.crtBuilder()
+                .region(region)
+                .credentialsProvider(credentialsProvider)
+                .targetThroughputInGbps(targetThroughputGbps)
+                .minimumPartSizeInBytes(minimumPartSize.toBytes())
+                .httpConfiguration(configuration -> configuration.connectionTimeout(crtConnectionTimeout));
+        if (crtMaxConcurrency > 0) {
+            builder.maxConcurrency(crtMaxConcurrency);
+        }
+        if (nonNull(endpointOverride)) {
+            builder.endpointOverride(endpointOverride).forcePathStyle(true);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.tyv.storageservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exports the S3 client's connection pool to Micrometer. The SDK reports the pool state with every request,
+ * the gauges keep the values of the latest one. API calls are timed per operation.
+ */
+public class S3ClientMetricPublisher implements MetricPublisher {
+    private static final String POOL_METER = "storage.aws.client.pool";
+    private static final String CALLS_METER = "storage.aws.client.calls";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<SdkMetric<Integer>, AtomicInteger> pool = Map.of(
+            HttpMetric.MAX_CONCURRENCY, new AtomicInteger(),
+            HttpMetric.LEASED_CONCURRENCY, new AtomicInteger(),
+            HttpMetric.AVAILABLE_CONCURRENCY, new AtomicInteger(),
+            HttpMetric.PENDING_CONCURRENCY_ACQUIRES, new AtomicInteger());
+
+    public S3ClientMetricPublisher(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        pool.forEach((metric, value) -> Gauge.builder(POOL_METER, value, AtomicInteger::get)
+                .tag("state", metric.name())
+                .register(meterRegistry));
+    }
+
+    @Override
+    public void publish(MetricCollection metricCollection) {
+        List<Duration> durations = metricCollection.metricValues(CoreMetric.API_CALL_DURATION);
+        if (!durations.isEmpty()) {
+            List<String> operations = metricCollection.metricValues(CoreMetric.OPERATION_NAME);
+            List<Boolean> successful = metricCollection.metricValues(CoreMetric.API_CALL_SUCCESSFUL);
+            Timer.builder(CALLS_METER)
+                    .tag("operation", operations.isEmpty() ? "unknown" : operations.getFirst())
+                    .tag("result", successful.contains(Boolean.FALSE) ? "failure" : "success")
+                    .register(meterRegistry)
+                    .record(durations.getFirst());
+        }
+        updatePool(metricCollection);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void updatePool(MetricCollection metricCollection) {
+        pool.forEach((metric, value) -> {
+            List<Integer> values = metricCollection.metricValues(metric);
+            if (!values.isEmpty()) {
+                value.set(values.getLast());
+            }
+        });
+        metricCollection.children().forEach(this::updatePool);
+    }
+}
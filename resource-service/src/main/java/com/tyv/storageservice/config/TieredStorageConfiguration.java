@@ -0,0 +1,48 @@
+package com.tyv.storageservice.config;
+
+import com.tyv.storageservice.service.FileStorage;
+import com.tyv.storageservice.service.FileStorageAWS;
+import com.tyv.storageservice.service.FileStorageLocal;
+import com.tyv.storageservice.service.MappedFilePool;
+import com.tyv.storageservice.service.TieredFileStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.unit.DataSize;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Local disk tier in front of S3, see {@link TieredFileStorage}. The tier is a {@link FileStorageLocal} on
+ * storage.path configured with the storage.local settings. The tier's beans are no autowire candidates of their own,
+ * so they never stand in for the profile's storage, and {@link FileStorageAWS} is a fallback candidate, so
+ * the tiered storage is injected wherever a {@link FileStorage} is (behind the byte cache if that is enabled).
+ */
+@Configuration
+@Profile("awsStorage")
+@ConditionalOnProperty(name = "storage.tiered.enabled", havingValue = "true")
+public class TieredStorageConfiguration {
+
+    @Bean(defaultCandidate = false)
+    public MappedFilePool tierMappedFilePool(Scheduler blockingScheduler, MeterRegistry meterRegistry) {
+        return new MappedFilePool(blockingScheduler, meterRegistry);
+    }
+
+    @Bean(defaultCandidate = false)
+    public FileStorageLocal tierFileStorage(Scheduler blockingScheduler,
+                                            @Qualifier("tierMappedFilePool") MappedFilePool tierMappedFilePool) {
+        return new FileStorageLocal(blockingScheduler, tierMappedFilePool);
+    }
+
+    @Bean
+    public FileStorage tieredFileStorage(FileStorageAWS fileStorageAWS,
+                                         @Qualifier("tierFileStorage") FileStorageLocal tierFileStorage,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${storage.tiered.capacity:50GB}") DataSize capacity,
+                                         @Value("${storage.tiered.max-file-size:256MB}") DataSize maxFileSize) {
+        return new TieredFileStorage(fileStorageAWS, tierFileStorage, meterRegistry, capacity, maxFileSize);
+    }
+}
@@ -1,10 +1,24 @@
 package com.tyv.storageservice.controller;
 
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.model.BatchUploadResult;
 import com.tyv.storageservice.model.Metadata;
+import com.tyv.storageservice.model.PresignedUpload;
+import com.tyv.storageservice.model.PresignedUrl;
+import com.tyv.storageservice.model.ResourceFilter;
+import com.tyv.storageservice.model.ResourcePage;
+import com.tyv.storageservice.model.UploadSessionStatus;
 import com.tyv.storageservice.dto.ResponseExceptionDto;
 import com.tyv.storageservice.enums.Bucket;
 import com.tyv.storageservice.enums.Category;
+import com.tyv.storageservice.enums.ContentCoding;
+import com.tyv.storageservice.exception.ResourceBatchTooLargeException;
+import com.tyv.storageservice.exception.ResourceListingException;
 import com.tyv.storageservice.exception.ResourceNotFoundException;
+import com.tyv.storageservice.exception.ResourceRangeNotSatisfiableException;
+import com.tyv.storageservice.exception.ResourceUploadNotSupportedException;
+import com.tyv.storageservice.exception.ResourceUploadSessionException;
+import com.tyv.storageservice.service.ResumableUploadService;
 import com.tyv.storageservice.service.Storage;
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,14 +29,19 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -31,10 +50,12 @@ import java.util.UUID;
 public class ResourceController {
 
     private final Storage storage;
+    private final ResumableUploadService resumableUploadService;
+    private final ResourceResponseWriter responseWriter;
 
     @Operation(
             summary = "Вернуть ресурс",
-            description = "Возвращение массива байтов по UUID загруженного раннее файла",
+            description = "Потоковая передача данных по UUID загруженного раннее файла",
     responses = {
             @ApiResponse(
                     responseCode = "200",
@@ -42,25 +63,154 @@ public class ResourceController {
                     headers = {
                             @Header(name = HttpHeaders.CONTENT_DISPOSITION, description = "Имя файла"),
                             @Header(name = HttpHeaders.CONTENT_LENGTH, description = "Размер файла в байтах"),
-                            @Header(name = HttpHeaders.CONTENT_TYPE, description = "Тип файла")},
+                            @Header(name = HttpHeaders.CONTENT_TYPE, description = "Тип файла"),
+                            @Header(name = HttpHeaders.ETAG, description = "Хэш содержимого файла"),
+                            @Header(name = HttpHeaders.LAST_MODIFIED, description = "Дата изменения ресурса"),
+                            @Header(name = HttpHeaders.CACHE_CONTROL, description = "Срок хранения ресурса в кэше")},
             content = @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)),
+            @ApiResponse(
+                    responseCode = "206",
+                    description = "Запрошена часть ресурса (заголовок Range), возвращаются указанные диапазоны байтов",
+                    headers = @Header(name = HttpHeaders.CONTENT_RANGE, description = "Диапазон байтов в ответе"),
+                    content = @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)),
+            @ApiResponse(
+                    responseCode = "302",
+                    description = "Включена выдача ссылок на хранилище, ресурс скачивается по временной ссылке из заголовка Location",
+                    headers = @Header(name = HttpHeaders.LOCATION, description = "Временная ссылка на файл в хранилище")),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Ресурс не изменился (заголовки If-None-Match, If-Modified-Since), данные не передаются"),
             @ApiResponse(
                     responseCode = "404",
                     description = "Ресурс по указанному UUID не найден",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ResponseExceptionDto.class))),
+            @ApiResponse(
+                    responseCode = "416",
+                    description = "Запрошенный диапазон байтов выходит за пределы ресурса",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = ResponseExceptionDto.class)))
     })
     @GetMapping(value = "/{uuid}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
     @ResponseStatus(HttpStatus.OK)
-    public Mono<ResponseEntity<byte[]>> getFilePath(
+    public Mono<Void> getFilePath(
             @Parameter(description = "Уникальный идентификатор ресурса", example = "9550a615-edd0-44b0-a2ca-507d6d6f5aeb")
-            @PathVariable("uuid") UUID uuid) {
-        return storage.getFileDataByUUID(Mono.just(uuid.toString()))
-                .map(resource -> ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getTitle() + "\"")
-                        .contentLength(resource.getData().length)
-                        .contentType(MediaType.parseMediaType(resource.getContentType()))
-                        .body(resource.getData()));
+            @PathVariable("uuid") UUID uuid,
+            @Parameter(hidden = true) ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+
+        return storage.getResourceByUUID(Mono.just(uuid.toString()))
+                .flatMap(resource -> {
+                    if (responseWriter.checkNotModified(resource, exchange)) {
+                        return response.setComplete();
+                    }
+
+                    return getDownloadUrl(resource, exchange.getRequest())
+                            .map(Optional::of)
+                            .defaultIfEmpty(Optional.empty())
+                            .flatMap(downloadUrl -> downloadUrl.isPresent()
+                                    ? responseWriter.writeRedirect(downloadUrl.get(), response)
+                                    : writeResource(resource, exchange));
+                });
+    }
+
+    @Operation(
+            summary = "Вернуть список ресурсов",
+            description = "Потоковая передача данных нескольких ресурсов одним ответом multipart/mixed. " +
+                    "Части идут в порядке переданных UUID, каждая часть содержит заголовок Content-ID с UUID ресурса. " +
+                    "Ненайденные ресурсы в ответ не попадают",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Найден хотя бы один ресурс, возвращаются данные",
+                            content = @Content(mediaType = MediaType.MULTIPART_MIXED_VALUE)),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Запрошено слишком много ресурсов",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseExceptionDto.class))),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Ни один ресурс по указанным UUID не найден",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseExceptionDto.class)))
+            })
+    @GetMapping(value = "/batch", produces = MediaType.MULTIPART_MIXED_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<Void> getResources(
+            @Parameter(description = "Уникальные идентификаторы ресурсов", example = "9550a615-edd0-44b0-a2ca-507d6d6f5aeb")
+            @RequestParam("uuid") List<UUID> uuids,
+            @Parameter(hidden = true) ServerHttpResponse response) {
+        return storage.getResourcesByUUIDs(uuids)
+                .collectList()
+                .filter(resources -> !resources.isEmpty())
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Resources by UUIDs " + uuids + " not found")))
+                .flatMap(resources -> responseWriter.writeMultipart(resources, response));
+    }
+
+    /**
+     * The storage serves a compressed resource only as is, so a client that does not accept its coding
+     * is not redirected.
+     */
+    private Mono<PresignedUrl> getDownloadUrl(StorageResource resource, ServerHttpRequest request) {
+        return resource.getContentCoding() == ContentCoding.IDENTITY || responseWriter.acceptsEncoding(resource, request)
+                ? storage.getDownloadUrl(resource)
+                : Mono.empty();
+    }
+
+    private Mono<Void> writeResource(StorageResource resource, ServerWebExchange exchange) {
+        if (resource.getContentCoding() != ContentCoding.IDENTITY) {
+            return responseWriter.writeEncoded(resource, exchange.getRequest(), exchange.getResponse());
+        }
+
+        List<HttpRange> ranges = responseWriter.isRangeApplicable(resource, exchange.getRequest())
+                ? getRanges(exchange.getRequest())
+                : List.of();
+
+        return ranges.isEmpty()
+                ? storage.getFileStream(resource).flatMap(stream -> responseWriter.write(stream, exchange.getResponse()))
+                : responseWriter.writeRanges(resource, ranges, exchange.getResponse());
+    }
+
+    private List<HttpRange> getRanges(ServerHttpRequest request) {
+        try {
+            return request.getHeaders().getRange();
+        } catch (IllegalArgumentException e) {
+            // A malformed Range header is ignored and the whole resource is sent
+            return List.of();
+        }
+    }
+
+    @Operation(
+            summary = "Найти ресурсы",
+            description = "Список ресурсов корзины, созданных в интервале [from, to), в порядке создания. " +
+                    "Ответ содержит страницу ресурсов и курсор next для запроса следующей страницы, " +
+                    "на последней странице курсор отсутствует",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Вернуть страницу ресурсов"),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Неверный размер страницы или курсор",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseExceptionDto.class)))
+            })
+    @GetMapping(value = "/list", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ResourcePage> findResources(@RequestParam("bucket") Bucket bucket,
+                                            @RequestParam(value = "category", required = false) Category category,
+                                            @Parameter(description = "Создан не раньше", example = "2026-10-01T00:00:00")
+                                            @RequestParam(value = "from", required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                            @Parameter(description = "Создан раньше", example = "2026-11-01T00:00:00")
+                                            @RequestParam(value = "to", required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                            @Parameter(description = "Курсор страницы из поля next предыдущего ответа")
+                                            @RequestParam(value = "cursor", required = false) String cursor,
+                                            @Parameter(description = "Размер страницы", example = "100")
+                                            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return storage.findResources(new ResourceFilter(bucket, category, from, to), cursor, limit);
     }
 
     @Operation(
@@ -80,6 +230,149 @@ public class ResourceController {
         return storage.createResourceAndGetUUID(Mono.just(new Metadata(bucket, category)), file);
     }
 
+    @Operation(
+            summary = "Получить ссылку для загрузки ресурса",
+            description = "Создать ресурс и получить временную ссылку, по которой файл загружается напрямую в хранилище " +
+                    "запросом PUT с указанным Content-Type. До загрузки файла ресурс недоступен для чтения",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "201",
+                            description = "Ресурс создан, вернуть UUID и ссылку для загрузки"),
+                    @ApiResponse(
+                            responseCode = "501",
+                            description = "Хранилище не поддерживает загрузку по ссылке",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseExceptionDto.class)))
+            })
+    @PostMapping(value = "/upload-url", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<PresignedUpload> createResourceUploadUrl(@RequestParam("bucket") Bucket bucket,
+                                                         @RequestParam("category") Category category,
+                                                         @Parameter(description = "Имя файла", example = "frog.png")
+                                                         @RequestParam("filename") String filename,
+                                                         @Parameter(description = "Тип файла", example = "image/png")
+                                                         @RequestParam("contentType") MediaType contentType) {
+        return storage.createResourceUploadUrl(Mono.just(new Metadata(bucket, category)), filename, contentType.toString());
+    }
+
+    @Operation(
+            summary = "Начать загрузку ресурса по частям",
+            description = "Создать сессию загрузки файла указанного размера. Файл передаётся частями размера chunkSize " +
+                    "(последняя часть может быть меньше), части загружаются в любом порядке и при сбое отправляются повторно. " +
+                    "Незавершённая сессия удаляется по истечении expiresAt",
+            responses = @ApiResponse(
+                    responseCode = "201",
+                    description = "Сессия создана, вернуть её UUID, размер частей и их количество"))
+    @PostMapping(value = "/upload-session", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<UploadSessionStatus> createUploadSession(@RequestParam("bucket") Bucket bucket,
+                                                         @RequestParam("category") Category category,
+                                                         @Parameter(description = "Имя файла", example = "video.mp4")
+                                                         @RequestParam("filename") String filename,
+                                                         @Parameter(description = "Тип файла", example = "video/mp4")
+                                                         @RequestParam("contentType") MediaType contentType,
+                                                         @Parameter(description = "Размер файла в байтах", example = "2147483648")
+                                                         @RequestParam("size") long size) {
+        return resumableUploadService.createSession(new Metadata(bucket, category), filename, contentType.toString(), size);
+    }
+
+    @Operation(
+            summary = "Состояние загрузки по частям",
+            description = "Вернуть номера полученных частей и смещение, с которого продолжается загрузка",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Вернуть состояние сессии"),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Сессия не найдена или истекла",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseExceptionDto.class)))
+            })
+    @GetMapping(value = "/upload-session/{uuid}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<UploadSessionStatus> getUploadSession(
+            @Parameter(description = "Уникальный идентификатор сессии", example = "9550a615-edd0-44b0-a2ca-507d6d6f5aeb")
+            @PathVariable("uuid") UUID uuid) {
+        return resumableUploadService.getStatus(uuid);
+    }
+
+    @Operation(
+            summary = "Загрузить часть ресурса",
+            description = "Передать часть файла с указанным номером (с 1) в теле запроса. Заголовок Content-Digest " +
+                    "содержит SHA-256 части (sha-256=:base64:). Повторно переданная часть заменяет прежнюю",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Часть принята, вернуть состояние сессии"),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Неверный номер или размер части, содержимое не совпадает с Content-Digest",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseExceptionDto.class))),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Сессия не найдена или истекла",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseExceptionDto.class)))
+            })
+    @PutMapping(value = "/upload-session/{uuid}/chunk/{number}",
+            consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<UploadSessionStatus> uploadChunk(
+            @Parameter(description = "Уникальный идентификатор сессии", example = "9550a615-edd0-44b0-a2ca-507d6d6f5aeb")
+            @PathVariable("uuid") UUID uuid,
+            @Parameter(description = "Номер части", example = "1")
+            @PathVariable("number") int number,
+            @Parameter(description = "SHA-256 части", example = "sha-256=:47DEQpj8HBSa+/TImW+5JCeuQeRkm5NMpJWZG3hSuFU=:")
+            @RequestHeader(value = "Content-Digest", required = false) String contentDigest,
+            @Parameter(hidden = true) ServerHttpRequest request) {
+        return resumableUploadService.saveChunk(uuid, number, contentDigest, request.getBody());
+    }
+
+    @Operation(
+            summary = "Завершить загрузку по частям",
+            description = "Собрать файл из полученных частей и создать ресурс. UUID ресурса совпадает с UUID сессии. "
+                    + "Ресурс доступен сразу после ответа на любом экземпляре сервиса: пока сессия не завершена, "
+                    + "отсутствие ресурса с её UUID не кэшируется",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "201",
+                            description = "Ресурс создан, вернуть UUID",
+                            content = @Content(schema = @Schema(type = "string", format = "uuid", example = "9550a615-edd0-44b0-a2ca-507d6d6f5aeb"))),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Получены не все части",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseExceptionDto.class))),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Сессия не найдена или истекла",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseExceptionDto.class)))
+            })
+    @PostMapping(value = "/upload-session/{uuid}/complete", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<UUID> completeUploadSession(
+            @Parameter(description = "Уникальный идентификатор сессии", example = "9550a615-edd0-44b0-a2ca-507d6d6f5aeb")
+            @PathVariable("uuid") UUID uuid) {
+        return resumableUploadService.complete(uuid);
+    }
+
+    @Operation(
+            summary = "Отменить загрузку по частям",
+            description = "Удалить сессию и полученные части",
+            responses = @ApiResponse(responseCode = "204", description = "Сессия удалена"))
+    @DeleteMapping(value = "/upload-session/{uuid}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> abortUploadSession(
+            @Parameter(description = "Уникальный идентификатор сессии", example = "9550a615-edd0-44b0-a2ca-507d6d6f5aeb")
+            @PathVariable("uuid") UUID uuid) {
+        return resumableUploadService.abort(uuid)
+                .onErrorResume(throwable -> throwable instanceof ResourceNotFoundException, throwable -> Mono.empty());
+    }
+
     @Operation(
             summary = "Создать список ресурсов",
             description = "Создать список ресурсов и получить список UUID в ответ. UUID необходимы для получения ресурсов",
@@ -98,6 +391,24 @@ public class ResourceController {
         return storage.createResourceListAndGetUUIDs(Mono.just(new Metadata(bucket, category)), file);
     }
 
+    @Operation(
+            summary = "Пакетная загрузка ресурсов",
+            description = "Создать ресурсы из всех переданных файлов. Результат по каждому файлу (UUID или ошибка) " +
+                    "возвращается строкой NDJSON по мере готовности, ошибка одного файла не прерывает загрузку остальных",
+            responses = @ApiResponse(
+                    responseCode = "200",
+                    description = "Поток результатов загрузки по файлам",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = BatchUploadResult.class))))
+    @PostMapping(value = "/uploadBatch",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchUploadResult> createResources(@RequestParam("bucket") Bucket bucket,
+                                                   @RequestParam("category") Category category,
+                                                   @RequestPart("file") Flux<FilePart> file) {
+        return storage.createResources(Mono.just(new Metadata(bucket, category)), file);
+    }
+
     @Operation(
             summary = "Удалить ресурс",
             description = "Удалить ресурс по UUID",
@@ -111,6 +422,29 @@ public class ResourceController {
                 .onErrorResume(throwable -> throwable instanceof ResourceNotFoundException, throwable -> Mono.empty());
     }
 
+    @Operation(
+            summary = "Удалить список ресурсов",
+            description = "Удалить ресурсы по списку UUID. Файлы удаляются пакетно, записи удаляются одним запросом. " +
+                    "Ненайденные ресурсы и ресурсы, файл которых удалить не удалось, в ответ не попадают",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Вернуть список UUID удалённых ресурсов",
+                            content = @Content(array = @ArraySchema(schema = @Schema(type = "string", format = "uuid",
+                                    examples = {"9550a615-edd0-44b0-a2ca-507d6d6f5aeb", "e45331f2-5941-4b35-baa0-10e01f016f1e"})))),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Передано слишком много ресурсов",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ResponseExceptionDto.class)))
+            })
+    @DeleteMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<List<UUID>> deleteResourcesByUUIDs(
+            @Parameter(description = "Уникальные идентификаторы ресурсов", example = "9550a615-edd0-44b0-a2ca-507d6d6f5aeb")
+            @RequestParam("uuid") List<UUID> uuids) {
+        return storage.deleteResourcesByUUIDs(uuids);
+    }
 
     @ExceptionHandler(ResourceNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
@@ -121,4 +455,56 @@ public class ResourceController {
                 .errorMessage(exception.getMessage())
                 .build());
     }
+
+    @ExceptionHandler(ResourceBatchTooLargeException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @Hidden
+    public Mono<ResponseExceptionDto> batchTooLargeException(ResourceBatchTooLargeException exception) {
+        return Mono.just(ResponseExceptionDto.builder()
+                .timestamp(LocalDateTime.now())
+                .errorMessage(exception.getMessage())
+                .build());
+    }
+
+    @ExceptionHandler(ResourceListingException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @Hidden
+    public Mono<ResponseExceptionDto> listingException(ResourceListingException exception) {
+        return Mono.just(ResponseExceptionDto.builder()
+                .timestamp(LocalDateTime.now())
+                .errorMessage(exception.getMessage())
+                .build());
+    }
+
+    @ExceptionHandler(ResourceUploadSessionException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @Hidden
+    public Mono<ResponseExceptionDto> uploadSessionException(ResourceUploadSessionException exception) {
+        return Mono.just(ResponseExceptionDto.builder()
+                .timestamp(LocalDateTime.now())
+                .errorMessage(exception.getMessage())
+                .build());
+    }
+
+    @ExceptionHandler(ResourceUploadNotSupportedException.class)
+    @ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
+    @Hidden
+    public Mono<ResponseExceptionDto> uploadNotSupportedException(ResourceUploadNotSupportedException exception) {
+        return Mono.just(ResponseExceptionDto.builder()
+                .timestamp(LocalDateTime.now())
+                .errorMessage(exception.getMessage())
+                .build());
+    }
+
+    @ExceptionHandler(ResourceRangeNotSatisfiableException.class)
+    @ResponseStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+    @Hidden
+    public Mono<ResponseExceptionDto> rangeException(ResourceRangeNotSatisfiableException exception,
+                                                     ServerHttpResponse response) {
+        response.getHeaders().set(HttpHeaders.CONTENT_RANGE, "bytes */" + exception.getContentLength());
+        return Mono.just(ResponseExceptionDto.builder()
+                .timestamp(LocalDateTime.now())
+                .errorMessage(exception.getMessage())
+                .build());
+    }
 }
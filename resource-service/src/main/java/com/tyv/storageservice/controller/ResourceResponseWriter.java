@@ -0,0 +1,331 @@
+package com.tyv.storageservice.controller;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.ContentCoding;
+import com.tyv.storageservice.exception.ResourceRangeNotSatisfiableException;
+import com.tyv.storageservice.model.PresignedUrl;
+import com.tyv.storageservice.model.ResourceStream;
+import com.tyv.storageservice.service.Storage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.*;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+@Component
+@RequiredArgsConstructor
+public class ResourceResponseWriter {
+    private static final String BYTES_RANGE_UNIT = "bytes";
+    private static final String CONTENT_ID = "Content-ID";
+    private static final String NO_RANGES = "none";
+
+    private final Storage storage;
+
+    @Value("${storage.http.cache-max-age:365d}")
+    private Duration cacheMaxAge;
+
+    @Value("${storage.batch.concurrency:4}")
+    private int batchConcurrency;
+
+    /**
+     * Checks the conditional request headers against the validators (ETag from the content hash, Last-Modified).
+     * The validators and Cache-Control are left on the response only if it is a 304; a response that goes on
+     * gets them once its content is opened, so an error response is never cached as the resource.
+     *
+     * @return {@code true} if the response is complete (304 or 412) and no content should be written
+     */
+    public boolean checkNotModified(StorageResource resource, ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        if (resource.getContentCoding() != ContentCoding.IDENTITY) {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        }
+
+        String eTag = getETag(resource, acceptsEncoding(resource, exchange.getRequest()));
+        boolean complete = exchange.checkNotModified(eTag, getLastModified(resource));
+        if (exchange.getResponse().getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            headers.setCacheControl(cacheControl());
+        } else {
+            headers.remove(HttpHeaders.ETAG);
+            headers.remove(HttpHeaders.LAST_MODIFIED);
+        }
+        return complete;
+    }
+
+    /**
+     * @return {@code true} if the resource is stored compressed and the client accepts the stored coding
+     */
+    public boolean acceptsEncoding(StorageResource resource, ServerHttpRequest request) {
+        ContentCoding coding = resource.getContentCoding();
+        if (coding == ContentCoding.IDENTITY) {
+            return false;
+        }
+
+        return request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .anyMatch(encoding -> {
+                    String[] parameters = encoding.split(";");
+                    String name = parameters[0].trim();
+                    return (name.equalsIgnoreCase(coding.getToken()) || name.equals("*"))
+                            && Arrays.stream(parameters).skip(1)
+                                    .map(String::trim)
+                                    .noneMatch(parameter -> parameter.matches("q=0(\\.0*)?"));
+                });
+    }
+
+    /**
+     * A range is sent only if the If-Range header is absent or matches the current ETag,
+     * otherwise the whole resource is sent.
+     */
+    public boolean isRangeApplicable(StorageResource resource, ServerHttpRequest request) {
+        String ifRange = request.getHeaders().getFirst(HttpHeaders.IF_RANGE);
+        return isNull(ifRange) || ifRange.equals(getETag(resource, false));
+    }
+
+    public Mono<Void> write(ResourceStream stream, ServerHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, BYTES_RANGE_UNIT);
+        setResourceHeaders(stream.resource(), headers);
+        setCacheHeaders(stream.resource(), headers, false);
+        if (stream.contentLength() >= 0) {
+            headers.setContentLength(stream.contentLength());
+        }
+
+        return writeContent(stream, response);
+    }
+
+    /**
+     * Writes a resource that is stored compressed. A client that accepts the stored coding gets the stored bytes
+     * with Content-Encoding, any other client gets the content decompressed on the fly. Ranges are not served
+     * for such resources.
+     */
+    public Mono<Void> writeEncoded(StorageResource resource, ServerHttpRequest request, ServerHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, NO_RANGES);
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        setResourceHeaders(resource, headers);
+
+        if (!acceptsEncoding(resource, request)) {
+            return storage.getDecodedFileStream(resource)
+                    .flatMap(stream -> {
+                        setCacheHeaders(resource, headers, false);
+                        return response.writeWith(stream.content());
+                    });
+        }
+
+        return storage.getFileStream(resource)
+                .flatMap(stream -> {
+                    headers.set(HttpHeaders.CONTENT_ENCODING, resource.getContentCoding().getToken());
+                    setCacheHeaders(resource, headers, true);
+                    headers.setContentLength(stream.contentLength());
+                    return writeContent(stream, response);
+                });
+    }
+
+    /**
+     * Redirects the client to a presigned storage URL. The URL expires, so the redirect itself is not cached.
+     */
+    public Mono<Void> writeRedirect(PresignedUrl downloadUrl, ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.FOUND);
+        response.getHeaders().setLocation(downloadUrl.url());
+        response.getHeaders().setCacheControl(CacheControl.noStore());
+        return response.setComplete();
+    }
+
+    /**
+     * Writes a 206 response: a single range is sent as is, several ranges are sent as {@code multipart/byteranges}.
+     */
+    public Mono<Void> writeRanges(StorageResource resource, List<HttpRange> ranges, ServerHttpResponse response) {
+        return storage.getContentLength(resource)
+                .flatMap(length -> {
+                    List<Region> regions = toRegions(resource, ranges, length);
+
+                    response.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+                    response.getHeaders().set(HttpHeaders.ACCEPT_RANGES, BYTES_RANGE_UNIT);
+                    setResourceHeaders(resource, response.getHeaders());
+                    setCacheHeaders(resource, response.getHeaders(), false);
+
+                    return regions.size() == 1
+                            ? writeRegion(resource, regions.getFirst(), length, response)
+                            : writeMultipartRegions(resource, regions, length, response);
+                });
+    }
+
+    /**
+     * Writes the resources as parts of a {@code multipart/mixed} response in the given order. While one part
+     * is written, up to {@code batchConcurrency} following files are already being read. A file that can not
+     * be opened is left out of the response, the status has already been sent by then.
+     */
+    public Mono<Void> writeMultipart(List<StorageResource> resources, ServerHttpResponse response) {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        response.getHeaders().setContentType(
+                MediaType.parseMediaType(MediaType.MULTIPART_MIXED_VALUE + "; boundary=" + boundary));
+        DataBufferFactory bufferFactory = response.bufferFactory();
+
+        Flux<DataBuffer> body = Flux.fromIterable(resources)
+                .flatMapSequential(resource -> storage.getDecodedFileStream(resource)
+                        .onErrorResume(e -> Mono.empty())
+                        .flatMapMany(stream -> Flux.concat(
+                                Mono.fromSupplier(() -> toDataBuffer(bufferFactory,
+                                        "\r\n--" + boundary + "\r\n" + toPartHeaders(stream) + "\r\n")),
+                                stream.content())),
+                        batchConcurrency)
+                .concatWith(Mono.fromSupplier(() -> toDataBuffer(bufferFactory, "\r\n--" + boundary + "--")))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+
+        return response.writeWith(body);
+    }
+
+    private Mono<Void> writeRegion(StorageResource resource, Region region, long length, ServerHttpResponse response) {
+        response.getHeaders().set(HttpHeaders.CONTENT_RANGE, region.contentRange(length));
+        response.getHeaders().setContentLength(region.count());
+
+        return storage.getFileStream(resource, region.position(), region.count())
+                .flatMap(stream -> writeContent(stream, response));
+    }
+
+    private Mono<Void> writeMultipartRegions(StorageResource resource, List<Region> regions, long length,
+                                             ServerHttpResponse response) {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        response.getHeaders().setContentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary));
+        DataBufferFactory bufferFactory = response.bufferFactory();
+
+        Flux<DataBuffer> body = Flux.fromIterable(regions)
+                .concatMap(region -> Flux.concat(
+                        Mono.fromSupplier(() -> toDataBuffer(bufferFactory,
+                                "\r\n--" + boundary + "\r\n" +
+                                HttpHeaders.CONTENT_TYPE + ": " + resource.getContentType() + "\r\n" +
+                                HttpHeaders.CONTENT_RANGE + ": " + region.contentRange(length) + "\r\n\r\n")),
+                        storage.getFileStream(resource, region.position(), region.count())
+                                .flatMapMany(ResourceStream::content)))
+                .concatWith(Mono.fromSupplier(() -> toDataBuffer(bufferFactory, "\r\n--" + boundary + "--")));
+
+        return response.writeWith(body);
+    }
+
+    private Mono<Void> writeContent(ResourceStream stream, ServerHttpResponse response) {
+        if (nonNull(stream.file()) && response instanceof ZeroCopyHttpOutputMessage zeroCopyResponse) {
+            return zeroCopyResponse.writeWith(stream.file(), stream.position(), stream.contentLength());
+        }
+
+        return response.writeWith(stream.content());
+    }
+
+    private void setResourceHeaders(StorageResource resource, HttpHeaders headers) {
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getTitle() + "\"");
+        headers.setContentType(MediaType.parseMediaType(resource.getContentType()));
+    }
+
+    /**
+     * The stored content of a resource never changes, so it may be cached for a long time.
+     */
+    private void setCacheHeaders(StorageResource resource, HttpHeaders headers, boolean encoded) {
+        headers.setCacheControl(cacheControl());
+        String eTag = getETag(resource, encoded);
+        if (nonNull(eTag)) {
+            headers.setETag(eTag);
+        }
+        Instant lastModified = getLastModified(resource);
+        if (lastModified.isAfter(Instant.EPOCH)) {
+            headers.setLastModified(lastModified);
+        }
+    }
+
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(cacheMaxAge).cachePublic().immutable();
+    }
+
+    private String toPartHeaders(ResourceStream stream) {
+        HttpHeaders headers = new HttpHeaders();
+        setResourceHeaders(stream.resource(), headers);
+        if (stream.contentLength() >= 0) {
+            headers.setContentLength(stream.contentLength());
+        }
+        headers.set(CONTENT_ID, "<" + stream.resource().getUuid() + ">");
+
+        StringBuilder partHeaders = new StringBuilder();
+        headers.forEach((name, values) -> values.forEach(value ->
+                partHeaders.append(name).append(": ").append(value).append("\r\n")));
+        return partHeaders.toString();
+    }
+
+    private List<Region> toRegions(StorageResource resource, List<HttpRange> ranges, long length) {
+        List<Region> regions = new ArrayList<>(ranges.size());
+        long total = 0;
+
+        for (HttpRange range : ranges) {
+            Region region;
+            try {
+                long start = range.getRangeStart(length);
+                region = new Region(start, range.getRangeEnd(length) - start + 1);
+            } catch (IllegalArgumentException e) {
+                throw rangeNotSatisfiable(resource, length);
+            }
+
+            if (region.count() <= 0) {
+                throw rangeNotSatisfiable(resource, length);
+            }
+            total += region.count();
+            regions.add(region);
+        }
+
+        if (total > length) {
+            throw rangeNotSatisfiable(resource, length);
+        }
+
+        return regions;
+    }
+
+    /**
+     * The compressed representation is a different entity than the original content, so it gets its own ETag.
+     */
+    private String getETag(StorageResource resource, boolean encoded) {
+        if (isNull(resource.getContentHash())) {
+            return null;
+        }
+
+        return encoded
+                ? "\"" + resource.getContentHash() + "-" + resource.getContentCoding().getToken() + "\""
+                : "\"" + resource.getContentHash() + "\"";
+    }
+
+    private Instant getLastModified(StorageResource resource) {
+        return isNull(resource.getUpdateAt())
+                ? Instant.MIN
+                : resource.getUpdateAt().atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private ResourceRangeNotSatisfiableException rangeNotSatisfiable(StorageResource resource, long length) {
+        return new ResourceRangeNotSatisfiableException(
+                "Requested range is not satisfiable, UUID=" + resource.getUuid(), length);
+    }
+
+    private DataBuffer toDataBuffer(DataBufferFactory bufferFactory, String value) {
+        return bufferFactory.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Region(long position, long count) {
+        String contentRange(long length) {
+            return BYTES_RANGE_UNIT + " " + position + "-" + (position + count - 1) + "/" + length;
+        }
+    }
+}
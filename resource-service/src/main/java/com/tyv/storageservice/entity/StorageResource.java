@@ -2,59 +2,70 @@ package com.tyv.storageservice.entity;
 
 import com.tyv.storageservice.enums.Bucket;
 import com.tyv.storageservice.enums.Category;
-import jakarta.persistence.*;
+import com.tyv.storageservice.enums.ContentCoding;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
-@Entity
 @Table(name = "storage_resource")
 @Getter
 @Setter
 @ToString
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
-@EntityListeners(AuditingEntityListener.class)
 public class StorageResource {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
 
     @CreatedDate
-    @Column(name = "created_at")
+    @Column("created_at")
     LocalDateTime createAt;
 
     @LastModifiedDate
-    @Column(name = "updated_at")
+    @Column("updated_at")
     LocalDateTime updateAt;
 
-    @Column(name = "uuid")
+    @Column("uuid")
     UUID uuid;
 
-    @Enumerated(EnumType.STRING)
-    @Column(name = "category")
+    @Column("category")
     Category category;
 
-    @Enumerated(EnumType.STRING)
-    @Column(name = "bucket")
+    @Column("bucket")
     Bucket bucket;
 
-    @Column(name = "content_type")
+    @Column("content_type")
     String contentType;
 
-    @Column(name = "path")
+    @Column("path")
     String path;
 
-    @Column(name = "title")
+    @Column("title")
     String title;
 
+    @Column("blob_hash")
+    String blobHash;
+
+    @Column("content_hash")
+    String contentHash;
+
+    @Column("checksum")
+    String checksum;
+
+    @Builder.Default
+    @Column("content_coding")
+    ContentCoding contentCoding = ContentCoding.IDENTITY;
+
     @Transient
     byte[] data;
 }
@@ -0,0 +1,76 @@
+package com.tyv.storageservice.entity;
+
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.enums.Category;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Chunked upload in progress. {@code uuid} becomes the UUID of the resource once the upload is complete,
+ * {@code uploadId} identifies the chunks staged by the {@code FileStorage}.
+ */
+@Table(name = "storage_upload_session")
+@Getter
+@Setter
+@ToString
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UploadSession {
+    @Id
+    Long id;
+
+    @CreatedDate
+    @Column("created_at")
+    LocalDateTime createAt;
+
+    @Column("expires_at")
+    LocalDateTime expiresAt;
+
+    @Column("uuid")
+    UUID uuid;
+
+    @Column("category")
+    Category category;
+
+    @Column("bucket")
+    Bucket bucket;
+
+    @Column("content_type")
+    String contentType;
+
+    @Column("title")
+    String title;
+
+    @Column("path")
+    String path;
+
+    @Column("size")
+    Long size;
+
+    @Column("chunk_size")
+    Long chunkSize;
+
+    @Column("upload_id")
+    String uploadId;
+
+    public int getChunkCount() {
+        return (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+    }
+
+    public long getChunkOffset(int number) {
+        return (number - 1) * chunkSize;
+    }
+
+    public long getChunkSize(int number) {
+        return Math.min(chunkSize, size - getChunkOffset(number));
+    }
+}
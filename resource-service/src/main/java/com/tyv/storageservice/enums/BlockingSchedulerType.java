@@ -0,0 +1,6 @@
+package com.tyv.storageservice.enums;
+
+public enum BlockingSchedulerType {
+    BOUNDED_ELASTIC,
+    VIRTUAL_THREADS
+}
@@ -0,0 +1,16 @@
+package com.tyv.storageservice.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Coding the content of a resource is stored with, {@code token} is its name in Content-Encoding.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ContentCoding {
+    IDENTITY("identity"),
+    GZIP("gzip");
+
+    private final String token;
+}
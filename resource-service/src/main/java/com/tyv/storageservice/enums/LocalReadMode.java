@@ -0,0 +1,7 @@
+package com.tyv.storageservice.enums;
+
+public enum LocalReadMode {
+    STREAM,
+    ZERO_COPY,
+    MAPPED
+}
@@ -0,0 +1,6 @@
+package com.tyv.storageservice.enums;
+
+public enum PathLayout {
+    DATE,
+    HASH_PREFIX
+}
@@ -0,0 +1,6 @@
+package com.tyv.storageservice.enums;
+
+public enum S3ClientType {
+    NETTY,
+    CRT
+}
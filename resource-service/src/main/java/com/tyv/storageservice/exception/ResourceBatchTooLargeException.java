@@ -0,0 +1,7 @@
+package com.tyv.storageservice.exception;
+
+public class ResourceBatchTooLargeException extends ResourceException {
+    public ResourceBatchTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.tyv.storageservice.exception;
+
+public class ResourceChecksumMismatchException extends ResourceException {
+    public ResourceChecksumMismatchException(String message) {
+        super(message);
+    }
+}
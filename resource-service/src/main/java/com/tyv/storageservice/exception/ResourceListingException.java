@@ -0,0 +1,7 @@
+package com.tyv.storageservice.exception;
+
+public class ResourceListingException extends ResourceException {
+    public ResourceListingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.tyv.storageservice.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ResourceRangeNotSatisfiableException extends ResourceException {
+    private final long contentLength;
+
+    public ResourceRangeNotSatisfiableException(String message, long contentLength) {
+        super(message);
+        this.contentLength = contentLength;
+    }
+}
@@ -0,0 +1,7 @@
+package com.tyv.storageservice.exception;
+
+public class ResourceUploadNotSupportedException extends ResourceException {
+    public ResourceUploadNotSupportedException(String message) {
+        super(message);
+    }
+}
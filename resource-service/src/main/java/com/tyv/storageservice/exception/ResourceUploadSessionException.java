@@ -0,0 +1,7 @@
+package com.tyv.storageservice.exception;
+
+public class ResourceUploadSessionException extends ResourceException {
+    public ResourceUploadSessionException(String message) {
+        super(message);
+    }
+}
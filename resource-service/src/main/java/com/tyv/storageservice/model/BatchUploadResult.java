@@ -0,0 +1,27 @@
+package com.tyv.storageservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one file of a batch upload: either {@code uuid} of the created resource or {@code error}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchUploadResult(
+        String filename,
+        UUID uuid,
+        String error
+) {
+    public static BatchUploadResult created(String filename, UUID uuid) {
+        return new BatchUploadResult(filename, uuid, null);
+    }
+
+    public static BatchUploadResult failed(String filename, String error) {
+        return new BatchUploadResult(filename, null, error);
+    }
+
+    public boolean isCreated() {
+        return uuid != null;
+    }
+}
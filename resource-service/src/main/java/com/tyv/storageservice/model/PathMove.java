@@ -0,0 +1,10 @@
+package com.tyv.storageservice.model;
+
+import com.tyv.storageservice.enums.Bucket;
+
+public record PathMove(
+        Bucket bucket,
+        String from,
+        String to
+) {
+}
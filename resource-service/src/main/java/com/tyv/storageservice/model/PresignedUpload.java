@@ -0,0 +1,12 @@
+package com.tyv.storageservice.model;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.UUID;
+
+public record PresignedUpload(
+        UUID uuid,
+        URI url,
+        String contentType,
+        Instant expiresAt
+) {}
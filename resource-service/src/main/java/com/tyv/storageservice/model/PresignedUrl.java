@@ -0,0 +1,12 @@
+package com.tyv.storageservice.model;
+
+import java.net.URI;
+import java.time.Instant;
+
+/**
+ * URL the client uses to transfer the file directly to or from the storage, valid until {@code expiresAt}.
+ */
+public record PresignedUrl(
+        URI url,
+        Instant expiresAt
+) {}
@@ -0,0 +1,15 @@
+package com.tyv.storageservice.model;
+
+public record ReconciliationReport(
+        long files,
+        long orphanFiles,
+        long danglingResources
+) {
+    public static final ReconciliationReport EMPTY = new ReconciliationReport(0, 0, 0);
+
+    public ReconciliationReport plus(ReconciliationReport other) {
+        return new ReconciliationReport(files + other.files,
+                orphanFiles + other.orphanFiles,
+                danglingResources + other.danglingResources);
+    }
+}
@@ -0,0 +1,36 @@
+package com.tyv.storageservice.model;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.exception.ResourceListingException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a listing ordered by {@code (created_at, id)}: the last resource of the previous page.
+ * Clients get it as an opaque URL-safe string.
+ */
+public record ResourceCursor(
+        LocalDateTime createdAt,
+        long id
+) {
+    public static ResourceCursor after(StorageResource resource) {
+        return new ResourceCursor(resource.getCreateAt(), resource.getId());
+    }
+
+    public static ResourceCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("/", 2);
+            return new ResourceCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ResourceListingException("Malformed cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "/" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
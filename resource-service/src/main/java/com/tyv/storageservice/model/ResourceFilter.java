@@ -0,0 +1,18 @@
+package com.tyv.storageservice.model;
+
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.enums.Category;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resources of {@code bucket} created in {@code [from, to)}. {@code category}, {@code from} and {@code to}
+ * are optional.
+ */
+public record ResourceFilter(
+        Bucket bucket,
+        Category category,
+        LocalDateTime from,
+        LocalDateTime to
+) {
+}
@@ -0,0 +1,15 @@
+package com.tyv.storageservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One page of a resource listing. {@code next} is the cursor of the following page, absent on the last page.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ResourcePage(
+        List<ResourceSummary> items,
+        String next
+) {
+}
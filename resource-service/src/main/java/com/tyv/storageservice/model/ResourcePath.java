@@ -0,0 +1,15 @@
+package com.tyv.storageservice.model;
+
+import com.tyv.storageservice.enums.Bucket;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ResourcePath(
+        Long id,
+        UUID uuid,
+        Bucket bucket,
+        String path,
+        LocalDateTime createdAt
+) {
+}
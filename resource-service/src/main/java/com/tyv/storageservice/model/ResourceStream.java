@@ -0,0 +1,25 @@
+package com.tyv.storageservice.model;
+
+import com.tyv.storageservice.entity.StorageResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Path;
+
+/**
+ * Stored file (or a byte region of it, starting at {@code position}) opened for reading.
+ * {@code contentLength} is -1 if the length is not known in advance (content decoded on the fly).
+ * {@code file} is set only when the bytes can be sent straight from the local file system,
+ * otherwise the response is written from {@code content}.
+ */
+public record ResourceStream(
+        StorageResource resource,
+        long position,
+        long contentLength,
+        Flux<DataBuffer> content,
+        Path file
+) {
+    public ResourceStream(StorageResource resource, long contentLength, Flux<DataBuffer> content) {
+        this(resource, 0, contentLength, content, null);
+    }
+}
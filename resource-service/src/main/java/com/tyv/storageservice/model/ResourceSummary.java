@@ -0,0 +1,23 @@
+package com.tyv.storageservice.model;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.enums.Category;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ResourceSummary(
+        UUID uuid,
+        Bucket bucket,
+        Category category,
+        String title,
+        String contentType,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+    public static ResourceSummary of(StorageResource resource) {
+        return new ResourceSummary(resource.getUuid(), resource.getBucket(), resource.getCategory(),
+                resource.getTitle(), resource.getContentType(), resource.getCreateAt(), resource.getUpdateAt());
+    }
+}
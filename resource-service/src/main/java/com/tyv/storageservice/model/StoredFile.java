@@ -0,0 +1,9 @@
+package com.tyv.storageservice.model;
+
+import java.time.Instant;
+
+public record StoredFile(
+        String path,
+        Instant lastModified
+) {
+}
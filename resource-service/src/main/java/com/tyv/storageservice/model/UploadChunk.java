@@ -0,0 +1,13 @@
+package com.tyv.storageservice.model;
+
+/**
+ * A received chunk of an upload session, {@code tag} is what the storage needs to assemble the file
+ * (the ETag of the S3 part), {@code null} if it needs nothing.
+ */
+public record UploadChunk(
+        int number,
+        long size,
+        String checksum,
+        String tag
+) {
+}
@@ -0,0 +1,20 @@
+package com.tyv.storageservice.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@code offset} is the number of bytes received without gaps from the start of the file,
+ * the upload resumes from the chunk that starts there.
+ */
+public record UploadSessionStatus(
+        UUID uuid,
+        long size,
+        long chunkSize,
+        int chunkCount,
+        List<Integer> receivedChunks,
+        long offset,
+        LocalDateTime expiresAt
+) {
+}
@@ -0,0 +1,53 @@
+package com.tyv.storageservice.repository;
+
+import com.tyv.storageservice.enums.Bucket;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reference counted blobs shared by resources with identical content (see storage.deduplication.enabled).
+ */
+@Repository
+@RequiredArgsConstructor
+public class BlobRepository {
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Registers one more reference to the blob with the given hash. If the blob is new, {@code path} becomes
+     * its location, otherwise the location of the already stored blob is returned.
+     */
+    public Mono<String> acquire(Bucket bucket, String hash, String path, long size) {
+        return databaseClient.sql("""
+                        INSERT INTO storage_blob (created_at, bucket, hash, path, size, ref_count)
+                        VALUES (now(), :bucket, :hash, :path, :size, 1)
+                        ON CONFLICT (bucket, hash) DO UPDATE SET ref_count = storage_blob.ref_count + 1
+                        RETURNING path""")
+                .bind("bucket", bucket.name())
+                .bind("hash", hash)
+                .bind("path", path)
+                .bind("size", size)
+                .map(row -> row.get("path", String.class))
+                .one();
+    }
+
+    /**
+     * Drops one reference and removes the blob row when nothing refers to it anymore.
+     *
+     * @return {@code true} if the blob row was removed and the stored file should be deleted
+     */
+    public Mono<Boolean> release(Bucket bucket, String hash) {
+        return databaseClient.sql("UPDATE storage_blob SET ref_count = ref_count - 1 WHERE bucket = :bucket AND hash = :hash")
+                .bind("bucket", bucket.name())
+                .bind("hash", hash)
+                .fetch()
+                .rowsUpdated()
+                .then(databaseClient.sql("DELETE FROM storage_blob WHERE bucket = :bucket AND hash = :hash AND ref_count <= 0")
+                        .bind("bucket", bucket.name())
+                        .bind("hash", hash)
+                        .fetch()
+                        .rowsUpdated())
+                .map(deleted -> deleted > 0);
+    }
+}
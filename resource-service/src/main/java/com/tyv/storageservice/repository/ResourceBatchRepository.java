@@ -0,0 +1,32 @@
+package com.tyv.storageservice.repository;
+
+import com.tyv.storageservice.entity.StorageResource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ResourceBatchRepository {
+
+    /**
+     * PostgreSQL takes at most 65535 bind parameters in a statement, nine are bound for each resource.
+     */
+    int MAX_INSERT_SIZE = 65535 / 9;
+
+    /**
+     * Inserts all resources with one batched statement and sets the generated ids. At most
+     * {@link #MAX_INSERT_SIZE} resources at a time.
+     *
+     * @return the inserted resources in the given order
+     */
+    Flux<StorageResource> insertAll(List<StorageResource> resources);
+
+    /**
+     * Deletes the resources with the given UUIDs with one statement.
+     *
+     * @return the number of deleted rows
+     */
+    Mono<Long> deleteAllByUuidIn(Collection<UUID> uuids);
+}
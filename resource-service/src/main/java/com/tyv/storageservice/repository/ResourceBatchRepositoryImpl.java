@@ -0,0 +1,90 @@
+package com.tyv.storageservice.repository;
+
+import com.tyv.storageservice.entity.StorageResource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
+public class ResourceBatchRepositoryImpl implements ResourceBatchRepository {
+    private static final int COLUMN_COUNT = 9;
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * A single multi-row INSERT, so the batch is stored (or rejected) as a whole in one round trip.
+     */
+    @Override
+    public Flux<StorageResource> insertAll(List<StorageResource> resources) {
+        if (resources.isEmpty()) {
+            return Flux.empty();
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(insertStatement(resources.size()));
+        for (int i = 0; i < resources.size(); i++) {
+            spec = bind(spec, i * COLUMN_COUNT, resources.get(i));
+        }
+
+        Map<UUID, StorageResource> byUuid = resources.stream()
+                .collect(Collectors.toMap(StorageResource::getUuid, Function.identity()));
+
+        return spec.map(row -> {
+                    StorageResource resource = byUuid.get(row.get("uuid", UUID.class));
+                    resource.setId(row.get("id", Long.class));
+                    return resource;
+                })
+                .all()
+                .thenMany(Flux.fromIterable(resources));
+    }
+
+    @Override
+    public Mono<Long> deleteAllByUuidIn(Collection<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        return databaseClient.sql("DELETE FROM storage_resource WHERE uuid IN (:uuids)")
+                .bind("uuids", uuids)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private String insertStatement(int rows) {
+        return IntStream.range(0, rows)
+                .mapToObj(row -> IntStream.rangeClosed(1, COLUMN_COUNT)
+                        .mapToObj(column -> "$" + (row * COLUMN_COUNT + column))
+                        .collect(Collectors.joining(", ", "(", ")")))
+                .collect(Collectors.joining(", ",
+                        "INSERT INTO storage_resource " +
+                                "(created_at, updated_at, uuid, category, bucket, content_type, title, path, content_coding) VALUES ",
+                        " RETURNING id, uuid"));
+    }
+
+    private DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, int offset,
+                                                   StorageResource resource) {
+        return bindNullable(bindNullable(spec
+                        .bind(offset, resource.getCreateAt())
+                        .bind(offset + 1, resource.getUpdateAt())
+                        .bind(offset + 2, resource.getUuid())
+                        .bind(offset + 3, resource.getCategory().name())
+                        .bind(offset + 4, resource.getBucket().name()),
+                        offset + 5, resource.getContentType()),
+                offset + 6, resource.getTitle())
+                .bind(offset + 7, resource.getPath())
+                .bind(offset + 8, resource.getContentCoding().name());
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, int index,
+                                                           String value) {
+        return value == null ? spec.bindNull(index, String.class) : spec.bind(index, value);
+    }
+}
@@ -0,0 +1,127 @@
+package com.tyv.storageservice.repository;
+
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.model.PathMove;
+import com.tyv.storageservice.model.ResourcePath;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Paths of stored files, used to move the files to another layout (see {@code PathLayoutMigration})
+ * and to compare the stored files with the rows (see {@code StorageReconciler}).
+ */
+@Repository
+@RequiredArgsConstructor
+public class ResourcePathRepository {
+    private static final int COLUMN_COUNT = 3;
+    private static final String COLUMNS = "id, uuid, bucket, path, created_at";
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<ResourcePath> findAfter(long id, int limit) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM storage_resource WHERE id > :id ORDER BY id LIMIT :limit")
+                .bind("id", id)
+                .bind("limit", limit)
+                .map(this::toResourcePath)
+                .all();
+    }
+
+    /**
+     * Resources of the bucket with {@code after < path <= upTo} in byte order, the order of
+     * {@code FileStorage.list}. Without {@code upTo} the range is open at the end.
+     */
+    public Flux<ResourcePath> findInRange(Bucket bucket, String after, String upTo) {
+        String condition = isNull(upTo)
+                ? "path COLLATE \"C\" > :after"
+                : "path COLLATE \"C\" > :after AND path COLLATE \"C\" <= :upTo";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("SELECT " + COLUMNS + " FROM storage_resource"
+                        + " WHERE bucket = :bucket AND " + condition + " ORDER BY path COLLATE \"C\"")
+                .bind("bucket", bucket.name())
+                .bind("after", after);
+        if (nonNull(upTo)) {
+            spec = spec.bind("upTo", upTo);
+        }
+
+        return spec.map(this::toResourcePath)
+                .all();
+    }
+
+    public Mono<Long> countByBucket(Bucket bucket) {
+        return databaseClient.sql("SELECT count(*) AS count FROM storage_resource WHERE bucket = :bucket")
+                .bind("bucket", bucket.name())
+                .map(row -> row.get("count", Long.class))
+                .one();
+    }
+
+    /**
+     * @return those of the paths that a resource or a deduplicated blob of the bucket points to
+     */
+    public Flux<String> findReferencedPaths(Bucket bucket, Collection<String> paths) {
+        return databaseClient.sql("""
+                        SELECT path FROM storage_resource WHERE bucket = :bucket AND path IN (:paths)
+                        UNION
+                        SELECT path FROM storage_blob WHERE bucket = :bucket AND path IN (:paths)""")
+                .bind("bucket", bucket.name())
+                .bind("paths", paths)
+                .map(row -> row.get("path", String.class))
+                .all();
+    }
+
+    /**
+     * Rewrites the paths of the resources and of the deduplicated blobs in one statement,
+     * so both tables point to the same file at any time.
+     */
+    public Mono<Long> updatePaths(List<PathMove> moves) {
+        if (moves.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(updateStatement(moves.size()));
+        for (int i = 0; i < moves.size(); i++) {
+            PathMove move = moves.get(i);
+            spec = spec.bind(i * COLUMN_COUNT, move.bucket().name())
+                    .bind(i * COLUMN_COUNT + 1, move.from())
+                    .bind(i * COLUMN_COUNT + 2, move.to());
+        }
+
+        return spec.fetch().rowsUpdated();
+    }
+
+    private String updateStatement(int rows) {
+        String values = IntStream.range(0, rows)
+                .mapToObj(row -> IntStream.rangeClosed(1, COLUMN_COUNT)
+                        .mapToObj(column -> "$" + (row * COLUMN_COUNT + column))
+                        .collect(Collectors.joining(", ", "(", ")")))
+                .collect(Collectors.joining(", "));
+
+        return """
+                WITH moves (bucket, old_path, new_path) AS (VALUES %s),
+                     blobs AS (UPDATE storage_blob SET path = moves.new_path FROM moves
+                               WHERE storage_blob.bucket = moves.bucket AND storage_blob.path = moves.old_path)
+                UPDATE storage_resource SET path = moves.new_path FROM moves
+                WHERE storage_resource.bucket = moves.bucket AND storage_resource.path = moves.old_path""".formatted(values);
+    }
+
+    private ResourcePath toResourcePath(Readable row) {
+        return new ResourcePath(
+                row.get("id", Long.class),
+                row.get("uuid", UUID.class),
+                Bucket.valueOf(row.get("bucket", String.class)),
+                row.get("path", String.class),
+                row.get("created_at", LocalDateTime.class));
+    }
+}
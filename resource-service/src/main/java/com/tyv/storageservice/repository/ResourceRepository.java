@@ -1,15 +1,16 @@
 package com.tyv.storageservice.repository;
 
 import com.tyv.storageservice.entity.StorageResource;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.Optional;
+import java.util.Collection;
 import java.util.UUID;
 
 @Repository
-@Transactional
-public interface ResourceRepository extends CrudRepository<StorageResource, String> {
-    Optional<StorageResource> findByUuid(UUID uuid);
+public interface ResourceRepository extends ReactiveCrudRepository<StorageResource, Long>, ResourceBatchRepository {
+    Mono<StorageResource> findByUuid(UUID uuid);
+    Flux<StorageResource> findAllByUuidIn(Collection<UUID> uuids);
 }
@@ -0,0 +1,68 @@
+package com.tyv.storageservice.repository;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.model.ResourceCursor;
+import com.tyv.storageservice.model.ResourceFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Listing of resources with keyset pagination: a page continues right after the {@code (created_at, id)}
+ * of the previous page's last row, so every page is one index range scan on
+ * {@code (bucket, [category,] created_at, id)}, however deep into the listing it is.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ResourceSearchRepository {
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+
+    /**
+     * @param after last row of the previous page, {@code null} for the first page
+     * @return at most {@code limit} rows ordered by {@code (created_at, id)}, emitted as they are read
+     */
+    public Flux<StorageResource> find(ResourceFilter filter, ResourceCursor after, int limit) {
+        List<String> conditions = new ArrayList<>(List.of("bucket = :bucket"));
+        if (nonNull(filter.category())) {
+            conditions.add("category = :category");
+        }
+        if (nonNull(filter.from())) {
+            conditions.add("created_at >= :from");
+        }
+        if (nonNull(filter.to())) {
+            conditions.add("created_at < :to");
+        }
+        if (nonNull(after)) {
+            conditions.add("(created_at, id) > (:afterCreatedAt, :afterId)");
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("SELECT * FROM storage_resource WHERE "
+                        + String.join(" AND ", conditions) + " ORDER BY created_at, id LIMIT :limit")
+                .bind("bucket", filter.bucket().name())
+                .bind("limit", limit);
+        if (nonNull(filter.category())) {
+            spec = spec.bind("category", filter.category().name());
+        }
+        if (nonNull(filter.from())) {
+            spec = spec.bind("from", filter.from());
+        }
+        if (nonNull(filter.to())) {
+            spec = spec.bind("to", filter.to());
+        }
+        if (nonNull(after)) {
+            spec = spec.bind("afterCreatedAt", after.createdAt())
+                    .bind("afterId", after.id());
+        }
+
+        return spec.map((row, metadata) -> converter.read(StorageResource.class, row, metadata))
+                .all();
+    }
+}
@@ -0,0 +1,61 @@
+package com.tyv.storageservice.repository;
+
+import com.tyv.storageservice.model.UploadChunk;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Received chunks of the upload sessions, removed together with their session.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UploadChunkRepository {
+    private final DatabaseClient databaseClient;
+
+    public Flux<UploadChunk> findAll(long sessionId) {
+        return databaseClient.sql("SELECT number, size, checksum, tag FROM storage_upload_chunk WHERE session_id = :sessionId ORDER BY number")
+                .bind("sessionId", sessionId)
+                .map(row -> new UploadChunk(
+                        row.get("number", Integer.class),
+                        row.get("size", Long.class),
+                        row.get("checksum", String.class),
+                        row.get("tag", String.class)))
+                .all();
+    }
+
+    /**
+     * Records the chunk as received, a chunk sent again replaces the earlier one.
+     */
+    public Mono<Void> save(long sessionId, UploadChunk chunk) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("""
+                        INSERT INTO storage_upload_chunk (session_id, number, size, checksum, tag)
+                        VALUES (:sessionId, :number, :size, :checksum, :tag)
+                        ON CONFLICT (session_id, number) DO UPDATE
+                        SET size = excluded.size, checksum = excluded.checksum, tag = excluded.tag""")
+                .bind("sessionId", sessionId)
+                .bind("number", chunk.number())
+                .bind("size", chunk.size())
+                .bind("checksum", chunk.checksum());
+        spec = isNull(chunk.tag())
+                ? spec.bindNull("tag", String.class)
+                : spec.bind("tag", chunk.tag());
+
+        return spec.fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    public Mono<Void> delete(long sessionId, int number) {
+        return databaseClient.sql("DELETE FROM storage_upload_chunk WHERE session_id = :sessionId AND number = :number")
+                .bind("sessionId", sessionId)
+                .bind("number", number)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+}
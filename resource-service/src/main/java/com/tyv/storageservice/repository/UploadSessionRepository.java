@@ -0,0 +1,16 @@
+package com.tyv.storageservice.repository;
+
+import com.tyv.storageservice.entity.UploadSession;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface UploadSessionRepository extends ReactiveCrudRepository<UploadSession, Long> {
+    Mono<UploadSession> findByUuid(UUID uuid);
+    Flux<UploadSession> findAllByExpiresAtBefore(LocalDateTime time);
+}
@@ -0,0 +1,208 @@
+package com.tyv.storageservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.model.PresignedUrl;
+import com.tyv.storageservice.model.ResourceStream;
+import com.tyv.storageservice.model.StoredFile;
+import com.tyv.storageservice.model.UploadChunk;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Keeps the content of small files in direct (off-heap) buffers in front of another {@link FileStorage}.
+ * Only files not larger than {@code maxObjectSize} are admitted, the cache is bounded by the total size
+ * of the cached content and evicts with Caffeine's W-TinyLFU policy. Content that turns out longer or shorter
+ * than its announced length is not cached, the file is read again from the storage instead.
+ * Enabled with storage.byte-cache.enabled, see {@code ProjectConfiguration}.
+ */
+@Slf4j
+public class CachingFileStorage implements FileStorage {
+    private static final String CACHE_NAME = "storage.byte-cache";
+    private static final String REQUESTS_METER = CACHE_NAME + ".requests";
+
+    private final FileStorage fileStorage;
+    private final MeterRegistry meterRegistry;
+    private final long maxObjectSize;
+    private final Cache<String, ByteBuffer> cache;
+
+    public CachingFileStorage(FileStorage fileStorage, MeterRegistry meterRegistry,
+                              DataSize maximumSize, DataSize maxObjectSize) {
+        this.fileStorage = fileStorage;
+        this.meterRegistry = meterRegistry;
+        this.maxObjectSize = maxObjectSize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((String key, ByteBuffer buffer) -> buffer.capacity())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public Mono<StorageResource> getData(StorageResource resource) {
+        ByteBuffer cached = lookup(resource);
+        if (nonNull(cached)) {
+            byte[] data = new byte[cached.capacity()];
+            cached.get(0, data);
+            resource.setData(data);
+            return Mono.just(resource);
+        }
+
+        return fileStorage.getData(resource)
+                .doOnNext(loaded -> {
+                    if (loaded.getData().length <= maxObjectSize) {
+                        cache.put(key(loaded), ByteBuffer.allocateDirect(loaded.getData().length)
+                                .put(loaded.getData())
+                                .flip());
+                    }
+                });
+    }
+
+    @Override
+    public Mono<ResourceStream> stream(StorageResource resource) {
+        ByteBuffer cached = lookup(resource);
+        if (nonNull(cached)) {
+            return Mono.just(toStream(resource, cached, 0, cached.capacity()));
+        }
+
+        return fileStorage.stream(resource)
+                .flatMap(stream -> stream.contentLength() < 0 || stream.contentLength() > maxObjectSize
+                        ? Mono.just(stream)
+                        : load(stream.content(), stream.contentLength())
+                                .doOnNext(buffer -> cache.put(key(resource), buffer))
+                                .map(buffer -> toStream(resource, buffer, 0, buffer.capacity()))
+                                .switchIfEmpty(Mono.defer(() -> {
+                                    log.warn("Content length mismatch, file is not cached: path={}", resource.getPath());
+                                    return fileStorage.stream(resource);
+                                })));
+    }
+
+    @Override
+    public Mono<ResourceStream> stream(StorageResource resource, long position, long count) {
+        ByteBuffer cached = lookup(resource);
+        return nonNull(cached)
+                ? Mono.just(toStream(resource, cached, position, count))
+                : fileStorage.stream(resource, position, count);
+    }
+
+    @Override
+    public Mono<Long> contentLength(StorageResource resource) {
+        ByteBuffer cached = cache.getIfPresent(key(resource));
+        return nonNull(cached)
+                ? Mono.just((long) cached.capacity())
+                : fileStorage.contentLength(resource);
+    }
+
+    @Override
+    public Mono<Boolean> exists(StorageResource resource) {
+        return fileStorage.exists(resource);
+    }
+
+    @Override
+    public Mono<Void> save(StorageResource storageResource, Flux<DataBuffer> content) {
+        return fileStorage.save(storageResource, content);
+    }
+
+    @Override
+    public Mono<Boolean> deleteFile(StorageResource storageResource) {
+        return fileStorage.deleteFile(storageResource)
+                .doFinally(signal -> cache.invalidate(key(storageResource)));
+    }
+
+    @Override
+    public Flux<StorageResource> deleteFiles(List<StorageResource> resources) {
+        return fileStorage.deleteFiles(resources)
+                .doFinally(signal -> resources.forEach(resource -> cache.invalidate(key(resource))));
+    }
+
+    @Override
+    public Flux<List<StoredFile>> list(Bucket bucket, int pageSize) {
+        return fileStorage.list(bucket, pageSize);
+    }
+
+    @Override
+    public Mono<String> startUpload(StorageResource resource) {
+        return fileStorage.startUpload(resource);
+    }
+
+    @Override
+    public Mono<String> saveChunk(StorageResource resource, String uploadId, int number, long offset,
+                                  Flux<DataBuffer> content) {
+        return fileStorage.saveChunk(resource, uploadId, number, offset, content);
+    }
+
+    @Override
+    public Mono<Void> completeUpload(StorageResource resource, String uploadId, List<UploadChunk> chunks) {
+        return fileStorage.completeUpload(resource, uploadId, chunks);
+    }
+
+    @Override
+    public Mono<Void> abortUpload(StorageResource resource, String uploadId) {
+        return fileStorage.abortUpload(resource, uploadId);
+    }
+
+    @Override
+    public Mono<PresignedUrl> getDownloadUrl(StorageResource resource) {
+        return fileStorage.getDownloadUrl(resource);
+    }
+
+    @Override
+    public Mono<PresignedUrl> getUploadUrl(StorageResource resource) {
+        return fileStorage.getUploadUrl(resource);
+    }
+
+    private ByteBuffer lookup(StorageResource resource) {
+        ByteBuffer cached = cache.getIfPresent(key(resource));
+        meterRegistry.counter(REQUESTS_METER,
+                        "bucket", resource.getBucket().toString().toLowerCase(),
+                        "result", nonNull(cached) ? "hit" : "miss")
+                .increment();
+        return cached;
+    }
+
+    /**
+     * @return empty if the content is not {@code contentLength} bytes long, such content is not cached
+     */
+    private Mono<ByteBuffer> load(Flux<DataBuffer> content, long contentLength) {
+        return Mono.defer(() -> {
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) contentLength);
+            return content
+                    .doOnNext(dataBuffer -> {
+                        try (DataBuffer.ByteBufferIterator iterator = dataBuffer.readableByteBuffers()) {
+                            iterator.forEachRemaining(buffer::put);
+                        } finally {
+                            DataBufferUtils.release(dataBuffer);
+                        }
+                    })
+                    .then(Mono.fromSupplier(() -> buffer.position() == contentLength ? buffer.flip() : null))
+                    .onErrorResume(BufferOverflowException.class, e -> Mono.empty());
+        });
+    }
+
+    private ResourceStream toStream(StorageResource resource, ByteBuffer buffer, long position, long count) {
+        Flux<DataBuffer> content = Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance
+                .wrap(buffer.asReadOnlyBuffer().slice((int) position, (int) count))));
+        return new ResourceStream(resource, position, count, content, null);
+    }
+
+    private String key(StorageResource resource) {
+        return resource.getBucket() + "/" + resource.getPath();
+    }
+}
@@ -0,0 +1,76 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.exception.ResourceChecksumMismatchException;
+import com.tyv.storageservice.model.ResourceStream;
+import com.tyv.storageservice.util.ContentChecksum;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Checks the stored bytes of a whole file against the CRC32C recorded when it was saved, while they are sent,
+ * so corruption is found without reading the file a second time. A mismatch ends the content with an error
+ * after the last byte: the response is aborted instead of completed, the client sees a broken transfer rather than
+ * a valid file with wrong bytes. The bytes have to pass through the service, so verified files are not sent
+ * with zero-copy. Files without a recorded checksum (presigned and chunked uploads, files saved before checksums
+ * were recorded) are passed on as they are. Enabled with storage.checksum.verify-on-read.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ChecksumVerifier {
+    private static final String MISMATCHES_METER = "storage.checksum.mismatches";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${storage.checksum.verify-on-read:false}")
+    private boolean verifyOnRead;
+
+    /**
+     * @param stream the whole stored file, as it is stored (not decoded)
+     */
+    public ResourceStream verify(ResourceStream stream) {
+        StorageResource resource = stream.resource();
+        if (!verifyOnRead || isNull(resource.getChecksum())) {
+            return stream;
+        }
+
+        Flux<DataBuffer> content = Flux.defer(() -> {
+            ContentChecksum checksum = ContentChecksum.crc32c();
+            return checksum.checksum(stream.content())
+                    .concatWith(Mono.defer(() -> check(resource, checksum.getValue())));
+        });
+        return new ResourceStream(resource, stream.position(), stream.contentLength(), content, null);
+    }
+
+    /**
+     * @param resource the resource with the whole stored file as its data
+     */
+    public Mono<StorageResource> verify(StorageResource resource) {
+        if (!verifyOnRead || isNull(resource.getChecksum())) {
+            return Mono.just(resource);
+        }
+
+        return check(resource, ContentChecksum.of(resource.getData()))
+                .thenReturn(resource);
+    }
+
+    private <T> Mono<T> check(StorageResource resource, String actual) {
+        if (resource.getChecksum().equals(actual)) {
+            return Mono.empty();
+        }
+
+        meterRegistry.counter(MISMATCHES_METER, "bucket", resource.getBucket().toString().toLowerCase()).increment();
+        log.error("Checksum mismatch: UUID={}, bucket={}, path={}, expected={}, actual={}",
+                resource.getUuid(), resource.getBucket(), resource.getPath(), resource.getChecksum(), actual);
+        return Mono.error(new ResourceChecksumMismatchException("Checksum mismatch, UUID=" + resource.getUuid()));
+    }
+}
@@ -0,0 +1,110 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.enums.Category;
+import com.tyv.storageservice.enums.ContentCoding;
+import com.tyv.storageservice.model.ResourceStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses the content of compressible categories while it is uploaded and decompresses it on the fly
+ * for clients that do not accept the stored coding. The JDK gzip streams block, so they run on the blocking
+ * scheduler with the content bridged through {@link DataBufferUtils#subscriberInputStream} and
+ * {@link DataBufferUtils#outputStreamPublisher}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContentCodec {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Scheduler blockingScheduler;
+
+    @Value("${storage.compression.enabled:false}")
+    private boolean enabled;
+
+    @Value("${storage.compression.categories:TEXT,EXCEL}")
+    private Set<Category> categories;
+
+    public ContentCoding codingFor(Category category) {
+        return enabled && categories.contains(category) ? ContentCoding.GZIP : ContentCoding.IDENTITY;
+    }
+
+    public Flux<DataBuffer> encode(ContentCoding coding, Flux<DataBuffer> content) {
+        if (coding == ContentCoding.IDENTITY) {
+            return content;
+        }
+
+        return transform(content, (input, output) -> {
+            try (GZIPOutputStream gzip = new GZIPOutputStream(output, BUFFER_SIZE)) {
+                input.transferTo(gzip);
+            }
+        });
+    }
+
+    public Flux<DataBuffer> decode(ContentCoding coding, Flux<DataBuffer> content) {
+        if (coding == ContentCoding.IDENTITY) {
+            return content;
+        }
+
+        return transform(content, (input, output) -> {
+            try (GZIPInputStream gzip = new GZIPInputStream(input, BUFFER_SIZE)) {
+                gzip.transferTo(output);
+            }
+        });
+    }
+
+    /**
+     * Decoded stream of the whole resource. The decoded size is not known in advance, so the content length is -1.
+     */
+    public ResourceStream decode(ResourceStream stream) {
+        ContentCoding coding = stream.resource().getContentCoding();
+        return coding == ContentCoding.IDENTITY
+                ? stream
+                : new ResourceStream(stream.resource(), -1, decode(coding, stream.content()));
+    }
+
+    public byte[] decode(ContentCoding coding, byte[] data) {
+        if (coding == ContentCoding.IDENTITY) {
+            return data;
+        }
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data), BUFFER_SIZE)) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Flux<DataBuffer> transform(Flux<DataBuffer> content, StreamTransformer transformer) {
+        return Flux.from(DataBufferUtils.outputStreamPublisher(output -> {
+                    try (InputStream input = DataBufferUtils.subscriberInputStream(content, 1)) {
+                        transformer.transform(input, output);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                },
+                DefaultDataBufferFactory.sharedInstance,
+                blockingScheduler::schedule,
+                BUFFER_SIZE));
+    }
+
+    @FunctionalInterface
+    private interface StreamTransformer {
+        void transform(InputStream input, OutputStream output) throws IOException;
+    }
+}
@@ -1,13 +1,89 @@
 package com.tyv.storageservice.service;
 
 import com.tyv.storageservice.entity.StorageResource;
-import org.springframework.http.codec.multipart.FilePart;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.model.PresignedUrl;
+import com.tyv.storageservice.model.ResourceStream;
+import com.tyv.storageservice.model.StoredFile;
+import com.tyv.storageservice.model.UploadChunk;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface FileStorage {
 
     Mono<StorageResource> getData(StorageResource resource);
-    Mono<Void> save(StorageResource storageResource, FilePart filePart);
+
+    /**
+     * Opens the stored file as a stream of buffers. Nothing is read until the content is subscribed,
+     * so the memory used per download does not depend on the file size.
+     */
+    Mono<ResourceStream> stream(StorageResource resource);
+
+    /**
+     * Opens {@code count} bytes of the stored file starting at {@code position}.
+     */
+    Mono<ResourceStream> stream(StorageResource resource, long position, long count);
+
+    Mono<Long> contentLength(StorageResource resource);
+
+    /**
+     * @return {@code false} only if the storage reports the file as missing, other failures are passed on
+     */
+    Mono<Boolean> exists(StorageResource resource);
+
+    Mono<Void> save(StorageResource storageResource, Flux<DataBuffer> content);
 
     Mono<Boolean> deleteFile(StorageResource storageResource);
+
+    /**
+     * Deletes the files of all given resources with as few storage calls as possible, a missing file counts
+     * as deleted.
+     *
+     * @return the resources whose files are gone, in no particular order
+     */
+    Flux<StorageResource> deleteFiles(List<StorageResource> resources);
+
+    /**
+     * All stored files of the bucket in pages of at most {@code pageSize}, ordered by path in UTF-8 byte order
+     * (the order of S3 listings and of the PostgreSQL "C" collation). A missing bucket fails the listing,
+     * so that it is never taken for an empty one.
+     */
+    Flux<List<StoredFile>> list(Bucket bucket, int pageSize);
+
+    /**
+     * Starts a chunked upload of the resource's file. Until it is completed, the chunks are staged apart from
+     * the stored files and the file does not exist.
+     *
+     * @return id the chunks of the upload are staged under
+     */
+    Mono<String> startUpload(StorageResource resource);
+
+    /**
+     * Stages chunk {@code number} (starting with 1) that starts at {@code offset} of the file.
+     * A chunk staged again replaces the earlier one.
+     *
+     * @return the tag the storage needs to assemble the file, empty if it needs none
+     */
+    Mono<String> saveChunk(StorageResource resource, String uploadId, int number, long offset, Flux<DataBuffer> content);
+
+    /**
+     * Makes the file out of the staged chunks, without copying their content.
+     */
+    Mono<Void> completeUpload(StorageResource resource, String uploadId, List<UploadChunk> chunks);
+
+    Mono<Void> abortUpload(StorageResource resource, String uploadId);
+
+    /**
+     * URL the client can download the file from without going through the service,
+     * empty if the storage does not hand out such URLs.
+     */
+    Mono<PresignedUrl> getDownloadUrl(StorageResource resource);
+
+    /**
+     * URL the client can upload the file to without going through the service, empty if not supported.
+     */
+    Mono<PresignedUrl> getUploadUrl(StorageResource resource);
 }
@@ -1,45 +1,66 @@
 package com.tyv.storageservice.service;
 
 import com.tyv.storageservice.entity.StorageResource;
-import jakarta.annotation.PostConstruct;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.model.PresignedUrl;
+import com.tyv.storageservice.model.ResourceStream;
+import com.tyv.storageservice.model.StoredFile;
+import com.tyv.storageservice.model.UploadChunk;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Fallback;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import software.amazon.awssdk.awscore.presigner.PresignedRequest;
 import software.amazon.awssdk.core.BytesWrapper;
 import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.core.async.AsyncResponseTransformer;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
-import java.util.concurrent.ConcurrentSkipListSet;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
+@Fallback
 @Profile({"awsStorage", "awsStorageTest"})
 @RequiredArgsConstructor
 public class FileStorageAWS implements FileStorage {
+    private static final int DELETE_OBJECTS_MAX_KEYS = 1000;
 
     private final S3RequestFactory requestFactory;
     private final S3AsyncClient s3Client;
-    private final ConcurrentSkipListSet<String> bucketNames = new ConcurrentSkipListSet<>();
+    private final S3Presigner s3Presigner;
+    private final S3BucketRegistry bucketRegistry;
 
-    @PostConstruct
-    public void init() {
-        s3Client.listBuckets()
-                .thenAccept(response -> response.buckets().forEach(bucket -> {
-                    bucketNames.add(bucket.name());
-                }))
-                .join();
-    }
+    @Value("${storage.aws.multipart.part-size:8MB}")
+    private DataSize partSize;
+
+    @Value("${storage.aws.multipart.parallelism:4}")
+    private int parallelism;
+
+    @Value("${storage.aws.presigned.download-redirect:false}")
+    private boolean downloadRedirect;
+
+    @Value("${storage.aws.presigned.ttl:5m}")
+    private Duration presignedTtl;
+
+    @Value("${storage.aws.delete.verify:false}")
+    private boolean verifyDelete;
 
     @Override
     public Mono<StorageResource> getData(StorageResource resource) {
@@ -47,58 +68,264 @@ public class FileStorageAWS implements FileStorage {
         return Mono.fromCompletionStage(s3Client.getObject(getObjectRequest, AsyncResponseTransformer.toBytes())
                 .thenApply(BytesWrapper::asByteArrayUnsafe)
         )
-                .subscribeOn(Schedulers.boundedElastic())
                 .doOnNext(resource::setData)
                 .thenReturn(resource);
     }
 
+    @Override
+    public Mono<ResourceStream> stream(StorageResource resource) {
+        return getObjectStream(resource, requestFactory.getObject(resource), 0);
+    }
 
     @Override
-    public Mono<Void> save(StorageResource storageResource, FilePart filePart) {
-        PutObjectRequest request = requestFactory.putObject(storageResource);
-        return Mono.fromCompletionStage(() -> prepareBucket(request.bucket()))
-                .thenMany(filePart.content())
-                .reduce(DataBuffer::write)
-                .flatMap((Function<DataBuffer, Mono<Void>>) dataBuffer -> {
-                    byte[] bytes = new byte[dataBuffer.readableByteCount()];
-                    dataBuffer.read(bytes);
-
-                    return Mono.fromCompletionStage(() -> s3Client.putObject(request, AsyncRequestBody.fromBytes(bytes)))
-                            .then();
-                });
+    public Mono<ResourceStream> stream(StorageResource resource, long position, long count) {
+        return getObjectStream(resource, requestFactory.getObject(resource, position, count), position);
     }
 
     @Override
-    public Mono<Boolean> deleteFile(StorageResource resource) {
-        return Mono.fromCompletionStage(() -> s3Client.deleteObject(requestFactory.deleteObject(resource))
-                .thenCompose(response -> isObjectAbsent(resource)));
+    public Mono<Long> contentLength(StorageResource resource) {
+        return Mono.fromCompletionStage(() -> s3Client.headObject(requestFactory.headObject(resource)))
+                .map(HeadObjectResponse::contentLength);
     }
 
-    private CompletableFuture<Boolean> isObjectAbsent(StorageResource resource) {
-        return s3Client.headObject(requestFactory.headObject(resource))
-                .handle((headObjectResponse, throwable) ->
-                        Objects.nonNull(throwable) && throwable.getCause() instanceof NoSuchKeyException);
+    @Override
+    public Mono<Boolean> exists(StorageResource resource) {
+        return Mono.fromCompletionStage(() -> s3Client.headObject(requestFactory.headObject(resource)))
+                .thenReturn(true)
+                .onErrorReturn(NoSuchKeyException.class, false);
     }
 
-    private CompletableFuture<Void> prepareBucket(String name) {
-        if (!bucketNames.contains(name)) {
-            return s3Client.createBucket(requestFactory.createBucket(name))
-                    .thenRunAsync(() -> {
-                        log.info("Bucket '{}' has been created", name);
-                        bucketNames.add(name);
-                    })
-                    .exceptionallyAsync(throwable -> {
-                        if (throwable instanceof CompletionException
-                                && throwable.getCause() instanceof BucketAlreadyExistsException) {
-                            log.warn("Bucket '{}' already exists, skipping", name);
-                            bucketNames.add(name);
-                            return null;
+    private Mono<ResourceStream> getObjectStream(StorageResource resource, GetObjectRequest request, long position) {
+        return Mono.fromCompletionStage(() -> s3Client.getObject(request, AsyncResponseTransformer.toPublisher()))
+                .map(publisher -> new ResourceStream(resource,
+                        position,
+                        publisher.response().contentLength(),
+                        Flux.from(publisher).map(DefaultDataBufferFactory.sharedInstance::wrap),
+                        null));
+    }
+
+    /**
+     * Uploads the file while it is being received. Files smaller than one part are sent with a single
+     * PutObject, larger ones with a multipart upload that keeps at most {@code parallelism} parts in flight.
+     * Every request carries the CRC32C of its bytes, S3 rejects an object or part that arrived corrupted.
+     */
+    @Override
+    public Mono<Void> save(StorageResource storageResource, Flux<DataBuffer> content) {
+        return bucketRegistry.ensure(storageResource.getBucket())
+                .thenMany(toParts(content))
+                .switchOnFirst((signal, parts) -> {
+                    if (!signal.hasValue()) {
+                        return signal.isOnComplete()
+                                ? putObject(storageResource, new byte[0])
+                                : parts.then();
+                    }
+
+                    return Objects.requireNonNull(signal.get()).length < partSize.toBytes()
+                            ? parts.concatMap(part -> putObject(storageResource, part)).then()
+                            : uploadMultipart(storageResource, parts);
+                })
+                .doOnError(NoSuchBucketException.class, throwable -> bucketRegistry.forget(storageResource.getBucket()))
+                .then();
+    }
+
+    private Flux<byte[]> toParts(Flux<DataBuffer> content) {
+        return Flux.defer(() -> {
+            AtomicLong bufferedBytes = new AtomicLong();
+            return content.bufferUntil(dataBuffer -> {
+                        if (bufferedBytes.addAndGet(dataBuffer.readableByteCount()) >= partSize.toBytes()) {
+                            bufferedBytes.set(0);
+                            return true;
                         }
+                        return false;
+                    })
+                    .map(this::toBytes)
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        });
+    }
 
-                        throw new CompletionException(throwable.getCause());
-                    });
+    private byte[] toBytes(List<DataBuffer> dataBuffers) {
+        byte[] bytes = new byte[dataBuffers.stream().mapToInt(DataBuffer::readableByteCount).sum()];
+        int offset = 0;
+        for (DataBuffer dataBuffer : dataBuffers) {
+            int length = dataBuffer.readableByteCount();
+            dataBuffer.read(bytes, offset, length);
+            offset += length;
+            DataBufferUtils.release(dataBuffer);
         }
+        return bytes;
+    }
+
+    private Mono<Void> putObject(StorageResource storageResource, byte[] bytes) {
+        return Mono.fromCompletionStage(() -> s3Client.putObject(requestFactory.putObject(storageResource),
+                        AsyncRequestBody.fromBytesUnsafe(bytes)))
+                .then();
+    }
+
+    private Mono<Void> uploadMultipart(StorageResource storageResource, Flux<byte[]> parts) {
+        return Mono.fromCompletionStage(() -> s3Client.createMultipartUpload(
+                        requestFactory.createMultipartUpload(storageResource, ChecksumAlgorithm.CRC32_C)))
+                .map(CreateMultipartUploadResponse::uploadId)
+                .flatMap(uploadId -> parts.index()
+                        .flatMapSequential(part -> uploadPart(storageResource, uploadId,
+                                        (int) (part.getT1() + 1), part.getT2(), ChecksumAlgorithm.CRC32_C),
+                                parallelism, 1)
+                        .collectList()
+                        .flatMap(completedParts -> Mono.fromCompletionStage(() -> s3Client.completeMultipartUpload(
+                                requestFactory.completeMultipartUpload(storageResource, uploadId, completedParts))))
+                        .onErrorResume(throwable -> abortMultipartUpload(storageResource, uploadId)
+                                .then(Mono.error(throwable)))
+                        .doOnCancel(() -> abortMultipartUpload(storageResource, uploadId).subscribe())
+                        .then());
+    }
+
+    /**
+     * With a checksum algorithm the part's checksum returned by S3 is needed to complete the upload.
+     */
+    private Mono<CompletedPart> uploadPart(StorageResource storageResource, String uploadId, int partNumber, byte[] bytes,
+                                           ChecksumAlgorithm checksumAlgorithm) {
+        return Mono.fromCompletionStage(() -> s3Client.uploadPart(
+                        requestFactory.uploadPart(storageResource, uploadId, partNumber, checksumAlgorithm),
+                        AsyncRequestBody.fromBytesUnsafe(bytes)))
+                .map(response -> CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(response.eTag())
+                        .checksumCRC32C(response.checksumCRC32C())
+                        .build());
+    }
+
+    private Mono<Void> abortMultipartUpload(StorageResource storageResource, String uploadId) {
+        return Mono.fromCompletionStage(() -> s3Client.abortMultipartUpload(
+                        requestFactory.abortMultipartUpload(storageResource, uploadId)))
+                .doOnSuccess(response -> log.warn("Multipart upload aborted: key={}, uploadId={}",
+                        storageResource.getPath(), uploadId))
+                .doOnError(throwable -> log.error("Multipart upload abort failed: key={}, uploadId={}",
+                        storageResource.getPath(), uploadId, throwable))
+                .onErrorComplete()
+                .then();
+    }
+
+    @Override
+    public Mono<Boolean> deleteFile(StorageResource resource) {
+        return deleteFiles(List.of(resource)).hasElements();
+    }
+
+    /**
+     * Deletes the objects with DeleteObjects, one call per bucket and {@value DELETE_OBJECTS_MAX_KEYS} keys.
+     * The per-key errors of the response tell which objects are left. With storage.aws.delete.verify
+     * every deleted object is additionally checked with a HEAD request.
+     */
+    @Override
+    public Flux<StorageResource> deleteFiles(List<StorageResource> resources) {
+        Flux<StorageResource> deleted = Flux.fromIterable(resources)
+                .groupBy(resource -> resource.getBucket().getWithUUID())
+                .flatMap(bucketResources -> bucketResources.buffer(DELETE_OBJECTS_MAX_KEYS)
+                        .concatMap(chunk -> deleteObjects(bucketResources.key(), chunk)));
+        return verifyDelete
+                ? deleted.filterWhen(this::isObjectAbsent)
+                : deleted;
+    }
+
+    private Mono<Boolean> isObjectAbsent(StorageResource resource) {
+        return exists(resource)
+                .doOnNext(exists -> {
+                    if (exists) {
+                        log.warn("Object still exists after deletion: bucket={}, key={}",
+                                resource.getBucket().getWithUUID(), resource.getPath());
+                    }
+                })
+                .map(exists -> !exists);
+    }
+
+    /**
+     * One ListObjectsV2 call per page, S3 returns the keys in UTF-8 byte order.
+     */
+    @Override
+    public Flux<List<StoredFile>> list(Bucket bucket, int pageSize) {
+        return Flux.from(s3Client.listObjectsV2Paginator(requestFactory.listObjects(bucket.getWithUUID(), pageSize)))
+                .map(page -> page.contents().stream()
+                        .map(object -> new StoredFile(object.key(), object.lastModified()))
+                        .toList())
+                .filter(files -> !files.isEmpty())
+                .doOnError(NoSuchBucketException.class, throwable -> bucketRegistry.forget(bucket));
+    }
+
+    private Flux<StorageResource> deleteObjects(String bucket, List<StorageResource> resources) {
+        return Mono.fromCompletionStage(() -> s3Client.deleteObjects(requestFactory.deleteObjects(bucket, resources)))
+                .flatMapIterable(response -> {
+                    Set<String> failedKeys = response.errors().stream()
+                            .peek(error -> log.warn("Object deletion failed: bucket={}, key={}, code={}",
+                                    bucket, error.key(), error.code()))
+                            .map(S3Error::key)
+                            .collect(Collectors.toSet());
+
+                    return resources.stream()
+                            .filter(resource -> !failedKeys.contains(resource.getPath()))
+                            .toList();
+                });
+    }
+
+    /**
+     * A chunked upload is an S3 multipart upload, every chunk is one part. S3 assembles the object
+     * from the parts on completion. Every chunk except the last one has to be at least 5MB.
+     */
+    @Override
+    public Mono<String> startUpload(StorageResource resource) {
+        return bucketRegistry.ensure(resource.getBucket())
+                .then(Mono.fromCompletionStage(() -> s3Client.createMultipartUpload(
+                        requestFactory.createMultipartUpload(resource))))
+                .map(CreateMultipartUploadResponse::uploadId);
+    }
+
+    @Override
+    public Mono<String> saveChunk(StorageResource resource, String uploadId, int number, long offset,
+                                  Flux<DataBuffer> content) {
+        return content.collectList()
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .map(this::toBytes)
+                .flatMap(bytes -> uploadPart(resource, uploadId, number, bytes, null))
+                .map(CompletedPart::eTag);
+    }
+
+    @Override
+    public Mono<Void> completeUpload(StorageResource resource, String uploadId, List<UploadChunk> chunks) {
+        List<CompletedPart> parts = chunks.stream()
+                .map(chunk -> CompletedPart.builder()
+                        .partNumber(chunk.number())
+                        .eTag(chunk.tag())
+                        .build())
+                .toList();
+
+        return Mono.fromCompletionStage(() -> s3Client.completeMultipartUpload(
+                        requestFactory.completeMultipartUpload(resource, uploadId, parts)))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> abortUpload(StorageResource resource, String uploadId) {
+        return abortMultipartUpload(resource, uploadId);
+    }
+
+    /**
+     * Presigned GET URL, only if storage.aws.presigned.download-redirect is enabled.
+     */
+    @Override
+    public Mono<PresignedUrl> getDownloadUrl(StorageResource resource) {
+        if (!downloadRedirect) {
+            return Mono.empty();
+        }
+
+        return Mono.fromCallable(() -> toPresignedUrl(
+                s3Presigner.presignGetObject(requestFactory.presignGetObject(resource, presignedTtl))));
+    }
+
+    @Override
+    public Mono<PresignedUrl> getUploadUrl(StorageResource resource) {
+        return bucketRegistry.ensure(resource.getBucket())
+                .then(Mono.fromCallable(() -> toPresignedUrl(
+                        s3Presigner.presignPutObject(requestFactory.presignPutObject(resource, presignedTtl)))));
+    }
 
-        return CompletableFuture.completedFuture(null);
+    private PresignedUrl toPresignedUrl(PresignedRequest request) throws URISyntaxException {
+        return new PresignedUrl(request.url().toURI(), request.expiration());
     }
 }
@@ -1,54 +1,353 @@
 package com.tyv.storageservice.service;
 
 import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.enums.LocalReadMode;
+import com.tyv.storageservice.model.PathMove;
+import com.tyv.storageservice.model.PresignedUrl;
+import com.tyv.storageservice.model.ResourceStream;
+import com.tyv.storageservice.model.StoredFile;
+import com.tyv.storageservice.model.UploadChunk;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
-import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @Profile("localStorage")
 @RequiredArgsConstructor
 public class FileStorageLocal implements FileStorage {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String UPLOADS_DIRECTORY = ".uploads";
+
+    private final Scheduler blockingScheduler;
+    private final MappedFilePool mappedFilePool;
+
     @Value("${storage.path}")
     private String STORAGE_PATH;
 
+    @Value("${storage.local.read-mode:STREAM}")
+    private LocalReadMode readMode;
+
+    @Value("${storage.batch.concurrency:4}")
+    private int batchConcurrency;
+
+    /**
+     * Reads the file through an {@link AsynchronousFileChannel}, no thread waits for the disk while it is read.
+     */
     @Override
     public Mono<StorageResource> getData(StorageResource resource) {
-        return Mono.fromCallable(() -> Files.readAllBytes(getRelativePath(resource)))
-                .subscribeOn(Schedulers.boundedElastic())
+        return DataBufferUtils.join(readFile(getRelativePath(resource), 0))
+                .map(dataBuffer -> {
+                    byte[] data = new byte[dataBuffer.readableByteCount()];
+                    dataBuffer.read(data);
+                    DataBufferUtils.release(dataBuffer);
+                    return data;
+                })
                 .doOnNext(resource::setData)
                 .thenReturn(resource);
     }
 
     @Override
-    public Mono<Void> save(StorageResource storageResource, FilePart filePart) {
+    public Mono<ResourceStream> stream(StorageResource resource) {
+        Mono<ResourceStream> stream = contentLength(resource)
+                .map(size -> openStream(resource, 0, size));
+
+        return readMode == LocalReadMode.MAPPED
+                ? mappedFilePool.get(getRelativePath(resource))
+                        .map(buffer -> mappedStream(resource, buffer, 0, buffer.capacity()))
+                        .switchIfEmpty(stream)
+                : stream;
+    }
+
+    @Override
+    public Mono<ResourceStream> stream(StorageResource resource, long position, long count) {
+        Mono<ResourceStream> stream = Mono.fromSupplier(() -> openStream(resource, position, count));
+
+        return readMode == LocalReadMode.MAPPED
+                ? mappedFilePool.get(getRelativePath(resource))
+                        .map(buffer -> mappedStream(resource, buffer, position, count))
+                        .switchIfEmpty(stream)
+                : stream;
+    }
+
+    @Override
+    public Mono<Long> contentLength(StorageResource resource) {
+        return Mono.fromCallable(() -> Files.size(getRelativePath(resource)))
+                .subscribeOn(blockingScheduler);
+    }
+
+    @Override
+    public Mono<Boolean> exists(StorageResource resource) {
+        return Mono.fromCallable(() -> Files.exists(getRelativePath(resource)))
+                .subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Directories are created on the blocking scheduler, the content is written through an
+     * {@link AsynchronousFileChannel} by {@link DataBufferUtils#write(org.reactivestreams.Publisher, Path, java.nio.file.OpenOption...)}.
+     */
+    @Override
+    public Mono<Void> save(StorageResource storageResource, Flux<DataBuffer> content) {
         Path path = getRelativePath(storageResource);
 
-        try {
-            prepareDirectory(path.getParent());
-        } catch (IOException e) {
-            return Mono.error(e);
+        return Mono.fromCallable(() -> {
+                    prepareDirectory(path.getParent());
+                    return path;
+                })
+                .subscribeOn(blockingScheduler)
+                .flatMap(target -> DataBufferUtils.write(content, target));
+    }
+
+    @Override
+    public Mono<Boolean> deleteFile(StorageResource resource) {
+        mappedFilePool.invalidate(getRelativePath(resource));
+        return Mono.fromCallable(() -> getRelativePath(resource).toFile().delete())
+                .subscribeOn(blockingScheduler);
+    }
+
+    @Override
+    public Flux<StorageResource> deleteFiles(List<StorageResource> resources) {
+        return Flux.fromIterable(resources)
+                .doOnNext(resource -> mappedFilePool.invalidate(getRelativePath(resource)))
+                .flatMap(resource -> Mono.fromCallable(() -> Files.deleteIfExists(getRelativePath(resource)))
+                                .subscribeOn(blockingScheduler)
+                                .thenReturn(resource)
+                                .onErrorResume(IOException.class, e -> {
+                                    log.warn("File deletion failed: path={}", resource.getPath(), e);
+                                    return Mono.empty();
+                                }),
+                        batchConcurrency);
+    }
+
+    @Override
+    public Mono<PresignedUrl> getDownloadUrl(StorageResource resource) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<PresignedUrl> getUploadUrl(StorageResource resource) {
+        return Mono.empty();
+    }
+
+    /**
+     * Walks the bucket directory depth first, one directory is read at a time. The entries of a directory
+     * are sorted by name, a subdirectory by its name followed by '/', which gives the byte order of the full paths.
+     */
+    @Override
+    public Flux<List<StoredFile>> list(Bucket bucket, int pageSize) {
+        Path root = resolve(bucket, "");
+        return Mono.fromCallable(() -> Files.isDirectory(root))
+                .subscribeOn(blockingScheduler)
+                .flatMapMany(exists -> exists
+                        ? walk(root, root).buffer(pageSize)
+                        : Flux.error(new NoSuchFileException(root.toString())));
+    }
+
+    private Flux<StoredFile> walk(Path root, Path directory) {
+        return Mono.fromCallable(() -> listDirectory(directory))
+                .subscribeOn(blockingScheduler)
+                .flatMapIterable(entries -> entries)
+                .concatMap(entry -> entry.directory()
+                        ? walk(root, entry.path())
+                        : Mono.just(new StoredFile(root.relativize(entry.path()).toString().replace(File.separatorChar, '/'),
+                                entry.lastModified())));
+    }
+
+    private List<DirectoryEntry> listDirectory(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
         }
 
-        return filePart.transferTo(path);
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.map(path -> {
+                        try {
+                            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                            return new DirectoryEntry(path, attributes.isDirectory(),
+                                    attributes.lastModifiedTime().toInstant());
+                        } catch (NoSuchFileException e) {
+                            return null;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(DirectoryEntry::sortKey, Arrays::compareUnsigned))
+                    .toList();
+        }
     }
 
+    private record DirectoryEntry(Path path, boolean directory, Instant lastModified) {
+        byte[] sortKey() {
+            String name = path.getFileName().toString();
+            return (directory ? name + "/" : name).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * The chunks are written straight into one staging file at their offsets, outside the bucket directories.
+     * Completion moves the staging file to the resource path, which is a rename on the same file system.
+     */
     @Override
-    public Mono<Boolean> deleteFile(StorageResource resource) {
-        return Mono.just(getRelativePath(resource))
-                .map(Path::toFile)
-                .map(File::delete);
+    public Mono<String> startUpload(StorageResource resource) {
+        String uploadId = UUID.randomUUID().toString();
+
+        return Mono.fromCallable(() -> {
+                    Path staging = getStagingPath(uploadId);
+                    prepareDirectory(staging.getParent());
+                    return Files.createFile(staging);
+                })
+                .subscribeOn(blockingScheduler)
+                .thenReturn(uploadId);
+    }
+
+    @Override
+    public Mono<String> saveChunk(StorageResource resource, String uploadId, int number, long offset,
+                                  Flux<DataBuffer> content) {
+        return Mono.usingWhen(
+                        Mono.fromCallable(() -> AsynchronousFileChannel.open(getStagingPath(uploadId), StandardOpenOption.WRITE))
+                                .subscribeOn(blockingScheduler),
+                        channel -> DataBufferUtils.write(content, channel, offset)
+                                .doOnNext(DataBufferUtils::release)
+                                .then(),
+                        channel -> Mono.fromCallable(() -> {
+                                    channel.close();
+                                    return channel;
+                                })
+                                .subscribeOn(blockingScheduler))
+                .then(Mono.empty());
+    }
+
+    @Override
+    public Mono<Void> completeUpload(StorageResource resource, String uploadId, List<UploadChunk> chunks) {
+        return Mono.fromCallable(() -> {
+                    Path path = getRelativePath(resource);
+                    prepareDirectory(path.getParent());
+                    return Files.move(getStagingPath(uploadId), path, StandardCopyOption.ATOMIC_MOVE);
+                })
+                .subscribeOn(blockingScheduler)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> abortUpload(StorageResource resource, String uploadId) {
+        return Mono.fromCallable(() -> Files.deleteIfExists(getStagingPath(uploadId)))
+                .subscribeOn(blockingScheduler)
+                .then();
+    }
+
+    /**
+     * Deletes every staging file. Only for a storage whose uploads do not outlive the process, such as the local
+     * tier, and before any upload starts.
+     *
+     * @return the number of files deleted
+     */
+    public Mono<Long> clearStaging() {
+        return Mono.fromCallable(() -> {
+                    Path staging = Path.of(STORAGE_PATH, UPLOADS_DIRECTORY);
+                    if (!Files.isDirectory(staging)) {
+                        return 0L;
+                    }
+
+                    try (Stream<Path> paths = Files.list(staging)) {
+                        return paths.filter(path -> {
+                                    try {
+                                        return Files.deleteIfExists(path);
+                                    } catch (IOException e) {
+                                        throw new UncheckedIOException(e);
+                                    }
+                                })
+                                .count();
+                    }
+                })
+                .subscribeOn(blockingScheduler);
+    }
+
+    private Path getStagingPath(String uploadId) {
+        return Path.of(STORAGE_PATH, UPLOADS_DIRECTORY, uploadId);
+    }
+
+    /**
+     * Makes the file available under its new path as well (hard link), the old path stays valid
+     * until {@link #unlink} is called. A link left by an interrupted earlier run is reused.
+     */
+    public Mono<Void> link(PathMove move) {
+        return Mono.fromCallable(() -> {
+                    Path target = resolve(move.bucket(), move.to());
+                    prepareDirectory(target.getParent());
+                    try {
+                        Files.createLink(target, resolve(move.bucket(), move.from()));
+                    } catch (FileAlreadyExistsException e) {
+                        log.warn("File already linked: path={}", move.to());
+                    }
+                    return target;
+                })
+                .subscribeOn(blockingScheduler)
+                .then();
+    }
+
+    public Mono<Void> unlink(Bucket bucket, String path) {
+        mappedFilePool.invalidate(resolve(bucket, path));
+        return Mono.fromCallable(() -> Files.deleteIfExists(resolve(bucket, path)))
+                .subscribeOn(blockingScheduler)
+                .then();
+    }
+
+    private ResourceStream openStream(StorageResource resource, long position, long count) {
+        Path path = getRelativePath(resource);
+        Flux<DataBuffer> content = DataBufferUtils.takeUntilByteCount(readFile(path, position), count);
+
+        return new ResourceStream(resource, position, count, content,
+                readMode == LocalReadMode.ZERO_COPY ? path : null);
+    }
+
+    /**
+     * The region of a mapped file is sent straight from the mapping, without a system call or a copy to the heap.
+     */
+    private ResourceStream mappedStream(StorageResource resource, ByteBuffer buffer, long position, long count) {
+        Flux<DataBuffer> content = Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance
+                .wrap(buffer.slice((int) position, (int) count))));
+        return new ResourceStream(resource, position, count, content, null);
+    }
+
+    /**
+     * Opening a file is a blocking system call, so the channel is opened on the blocking scheduler.
+     * The reads themselves complete asynchronously.
+     */
+    private Flux<DataBuffer> readFile(Path path, long position) {
+        return DataBufferUtils.readAsynchronousFileChannel(
+                        () -> AsynchronousFileChannel.open(path, StandardOpenOption.READ),
+                        position, DefaultDataBufferFactory.sharedInstance, BUFFER_SIZE)
+                .subscribeOn(blockingScheduler, false);
     }
 
     private void prepareDirectory(Path path) throws IOException {
@@ -64,8 +363,10 @@ public class FileStorageLocal implements FileStorage {
     }
 
     private Path getRelativePath(StorageResource storageResource) {
-        return Path.of(STORAGE_PATH,
-                storageResource.getBucket().toString().toLowerCase(),
-                storageResource.getPath());
+        return resolve(storageResource.getBucket(), storageResource.getPath());
+    }
+
+    private Path resolve(Bucket bucket, String path) {
+        return Path.of(STORAGE_PATH, bucket.toString().toLowerCase(), path);
     }
 }
@@ -0,0 +1,58 @@
+package com.tyv.storageservice.service;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lets one replica at a time run a background job, with a PostgreSQL session advisory lock keyed by the job's name.
+ * The lock is held on a connection of its own for the whole run and released before the connection goes back
+ * to the pool. A replica that dies while running drops its connection, and the lock with it.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class JobLock {
+    private final ConnectionFactory connectionFactory;
+
+    /**
+     * @return the result of the job, empty if another replica is running it
+     */
+    public <T> Mono<T> runExclusively(String name, Mono<T> job) {
+        return Mono.usingWhen(connectionFactory.create(),
+                connection -> query(connection, "SELECT pg_try_advisory_lock(hashtext($1)) AS locked", name)
+                        .flatMap(locked -> {
+                            if (!locked) {
+                                log.info("Job is running on another replica, skipped: {}", name);
+                                return Mono.empty();
+                            }
+                            return job;
+                        }),
+                this::release,
+                (connection, throwable) -> release(connection),
+                this::release);
+    }
+
+    private Mono<Boolean> query(Connection connection, String sql, String name) {
+        return Flux.from(connection.createStatement(sql)
+                        .bind("$1", name)
+                        .execute())
+                .flatMap(result -> result.map((row, metadata) -> row.get("locked", Boolean.class)))
+                .next();
+    }
+
+    private Mono<Void> release(Connection connection) {
+        return Flux.from(connection.createStatement("SELECT pg_advisory_unlock_all()").execute())
+                .flatMap(result -> result.getRowsUpdated())
+                .then()
+                .onErrorResume(throwable -> {
+                    log.warn("Advisory locks were not released, the connection is closed", throwable);
+                    return Mono.empty();
+                })
+                .then(Mono.from(connection.close()));
+    }
+}
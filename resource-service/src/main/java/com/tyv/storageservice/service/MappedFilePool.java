@@ -0,0 +1,98 @@
+package com.tyv.storageservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped files for storage.local.read-mode=MAPPED. Hot files stay mapped, so repeated reads neither
+ * open the file nor copy its bytes to the heap. The pool is bounded by the total size of the mapped files
+ * and evicts with Caffeine's W-TinyLFU policy. An evicted mapping is released by the garbage collector
+ * once the last response that still sends it is done, so eviction never unmaps a file that is being written out.
+ * Files too large to be mapped are remembered, so their reads do not open them for the pool again.
+ */
+@Component
+@Profile("localStorage")
+@RequiredArgsConstructor
+public class MappedFilePool {
+    private static final String CACHE_NAME = "storage.local.mapped";
+    private static final int MAX_OVERSIZED_FILES = 100_000;
+
+    private final Scheduler blockingScheduler;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${storage.local.mapped.pool-size:1GB}")
+    private DataSize poolSize;
+
+    @Value("${storage.local.mapped.max-file-size:64MB}")
+    private DataSize maxFileSize;
+
+    private Cache<Path, MappedByteBuffer> cache;
+    private Cache<Path, Long> oversized;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(poolSize.toBytes())
+                .weigher((Path path, MappedByteBuffer buffer) -> buffer.capacity())
+                .recordStats()
+                .build();
+        oversized = Caffeine.newBuilder()
+                .maximumSize(MAX_OVERSIZED_FILES)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * @return the whole mapped file, empty if the file is larger than storage.local.mapped.max-file-size
+     */
+    public Mono<ByteBuffer> get(Path path) {
+        MappedByteBuffer cached = cache.getIfPresent(path);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        if (oversized.getIfPresent(path) != null) {
+            return Mono.empty();
+        }
+
+        return Mono.fromCallable(() -> (ByteBuffer) cache.get(path, this::map))
+                .onErrorMap(UncheckedIOException.class, UncheckedIOException::getCause)
+                .subscribeOn(blockingScheduler);
+    }
+
+    public void invalidate(Path path) {
+        cache.invalidate(path);
+        oversized.invalidate(path);
+    }
+
+    private MappedByteBuffer map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > maxFileSize.toBytes()) {
+                oversized.put(path, size);
+                return null;
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.model.PathMove;
+import com.tyv.storageservice.model.ResourcePath;
+import com.tyv.storageservice.repository.ResourcePathRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Moves the files stored under another layout to the one configured in storage.path-layout while the service
+ * keeps running. Resources are scanned by id in batches of {@code batchSize}. For every batch the files are
+ * linked to their new paths first, then the paths are rewritten with one statement and the batch is evicted
+ * from the metadata cache. The old paths are removed {@code unlinkDelay} later, after every replica's metadata
+ * cache has expired the rows that still point to them, so a file stays readable under the old path as long as
+ * a cached row may refer to it. Old paths left by a stopped run no longer have a row and are orphan files
+ * for the reconciliation.
+ * A new link keeps the modification time of the file, so the reconciliation would take it for an old orphan
+ * file until the rows point to it, and the old paths likewise during {@code unlinkDelay}: the migration
+ * does not start while storage.reconciliation.repair is enabled.
+ * Enabled with storage.path-layout-migration.enabled, starts when the application is ready on one replica
+ * (see {@link JobLock}), the others skip it.
+ */
+@Component
+@Slf4j
+@Profile("localStorage")
+@ConditionalOnProperty(name = "storage.path-layout-migration.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class PathLayoutMigration {
+    private static final String JOB_NAME = "path-layout-migration";
+
+    private final ResourcePathRepository resourcePathRepository;
+    private final ResourcePathFactory resourcePathFactory;
+    private final ResourceMetadataCache resourceMetadataCache;
+    private final FileStorageLocal fileStorageLocal;
+    private final JobLock jobLock;
+
+    @Value("${storage.path-layout-migration.batch-size:500}")
+    private int batchSize;
+
+    @Value("${storage.path-layout-migration.unlink-delay:15m}")
+    private Duration unlinkDelay;
+
+    @Value("${storage.batch.concurrency:4}")
+    private int concurrency;
+
+    @Value("${storage.reconciliation.enabled:false}")
+    private boolean reconciliation;
+
+    @Value("${storage.reconciliation.repair:false}")
+    private boolean reconciliationRepair;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (reconciliation && reconciliationRepair) {
+            log.error("Path layout migration is not started: storage.reconciliation.repair must be disabled while files are moved");
+            return;
+        }
+
+        jobLock.runExclusively(JOB_NAME, migrate()).subscribe(
+                moved -> log.info("Path layout migration finished: {} files moved", moved),
+                throwable -> log.error("Path layout migration failed", throwable));
+    }
+
+    /**
+     * Completes when the old paths of the last batch are removed.
+     *
+     * @return the number of moved files
+     */
+    public Mono<Long> migrate() {
+        return migrateBatch(0L)
+                .expand(batch -> migrateBatch(batch.lastId()))
+                .flatMap(batch -> Mono.delay(unlinkDelay)
+                        .then(unlinkOldPaths(batch.moved()))
+                        .thenReturn((long) batch.moved().size()))
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Batch> migrateBatch(long afterId) {
+        return resourcePathRepository.findAfter(afterId, batchSize)
+                .collectList()
+                .filter(resources -> !resources.isEmpty())
+                .flatMap(resources -> {
+                    List<PathMove> moves = resources.stream()
+                            .map(resource -> new PathMove(resource.bucket(), resource.path(),
+                                    resourcePathFactory.relocate(resource.path())))
+                            .filter(move -> !move.from().equals(move.to()))
+                            .distinct()
+                            .toList();
+
+                    return Flux.fromIterable(moves)
+                            .flatMap(move -> fileStorageLocal.link(move)
+                                            .thenReturn(move)
+                                            .onErrorResume(throwable -> {
+                                                log.warn("File was not moved: path={}", move.from(), throwable);
+                                                return Mono.empty();
+                                            }),
+                                    concurrency)
+                            .collectList()
+                            .flatMap(this::movePaths)
+                            .doOnNext(moved -> resources.stream()
+                                    .map(ResourcePath::uuid)
+                                    .forEach(resourceMetadataCache::evict))
+                            .map(moved -> new Batch(resources.getLast().id(), moved))
+                            .doOnNext(batch -> log.info("Path layout migration: {} files moved, last id={}",
+                                    batch.moved().size(), batch.lastId()));
+                });
+    }
+
+    /**
+     * If the rows cannot be updated, the new links are removed again and the files stay where they were.
+     *
+     * @return the moves whose rows point to the new paths now
+     */
+    private Mono<List<PathMove>> movePaths(List<PathMove> linked) {
+        return resourcePathRepository.updatePaths(linked)
+                .onErrorResume(throwable -> Flux.fromIterable(linked)
+                        .flatMap(move -> fileStorageLocal.unlink(move.bucket(), move.to()), concurrency)
+                        .then(Mono.error(throwable)))
+                .thenReturn(linked);
+    }
+
+    private Mono<Void> unlinkOldPaths(List<PathMove> moved) {
+        return Flux.fromIterable(moved)
+                .flatMap(move -> fileStorageLocal.unlink(move.bucket(), move.from()), concurrency)
+                .then();
+    }
+
+    private record Batch(long lastId, List<PathMove> moved) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.tyv.storageservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.repository.ResourceRepository;
+import com.tyv.storageservice.repository.UploadSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Resource rows do not change after upload, so lookups by UUID are cached. Missing UUIDs are cached
+ * as well (for a shorter time), so repeated requests for an unknown resource do not reach the database.
+ * A UUID with an upload session is not cached while it is missing: the session may be completed on another
+ * replica, whose eviction does not reach this one. The session is looked up after the resource, and the resource
+ * once more when there is no session, because completion saves the resource before it removes the session.
+ * Cached resources are copied on every read, callers are free to modify what they get.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResourceMetadataCache {
+    private static final String CACHE_NAME = "storage.resource.metadata";
+
+    private final ResourceRepository resourceRepository;
+    private final UploadSessionRepository uploadSessionRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${storage.metadata-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${storage.metadata-cache.ttl:10m}")
+    private Duration ttl;
+
+    @Value("${storage.metadata-cache.negative-ttl:30s}")
+    private Duration negativeTtl;
+
+    private AsyncLoadingCache<UUID, Lookup> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.<UUID, Lookup>creating((uuid, lookup) -> nonNull(lookup.resource()) ? ttl
+                        : lookup.uploading() ? Duration.ZERO : negativeTtl))
+                .recordStats()
+                .buildAsync((uuid, executor) -> load(uuid).toFuture());
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * @return the resource with the given UUID or an empty Mono if there is none
+     */
+    public Mono<StorageResource> findByUuid(UUID uuid) {
+        return Mono.fromFuture(() -> cache.get(uuid), true)
+                .mapNotNull(Lookup::resource)
+                .map(resource -> resource.toBuilder().build());
+    }
+
+    public void evict(UUID uuid) {
+        cache.synchronous().invalidate(uuid);
+    }
+
+    private Mono<Lookup> load(UUID uuid) {
+        return resourceRepository.findByUuid(uuid)
+                .map(Lookup::found)
+                .switchIfEmpty(Mono.defer(() -> uploadSessionRepository.findByUuid(uuid)
+                        .hasElement()
+                        .flatMap(uploading -> uploading
+                                ? Mono.just(Lookup.UPLOADING)
+                                : resourceRepository.findByUuid(uuid)
+                                        .map(Lookup::found)
+                                        .defaultIfEmpty(Lookup.MISSING))));
+    }
+
+    private record Lookup(StorageResource resource, boolean uploading) {
+        static final Lookup MISSING = new Lookup(null, false);
+        static final Lookup UPLOADING = new Lookup(null, true);
+
+        static Lookup found(StorageResource resource) {
+            return new Lookup(resource, false);
+        }
+    }
+}
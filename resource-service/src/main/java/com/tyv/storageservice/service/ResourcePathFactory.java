@@ -0,0 +1,51 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.enums.PathLayout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Builds storage paths according to storage.path-layout. DATE puts all files of a day into one directory,
+ * HASH_PREFIX spreads them over 65536 directories named after the first four hex digits of the random UUID
+ * ({@code ab/cd/abcd...-name}), so a directory never holds more than a small share of all files.
+ */
+@Component
+public class ResourcePathFactory {
+    private static final int PREFIX_LENGTH = 2;
+    private static final int PREFIX_LEVELS = 2;
+
+    @Value("${storage.path-layout:DATE}")
+    private PathLayout layout;
+
+    public String create(UUID uuid, String filename) {
+        String fileName = uuid.toString() + '-' + filename;
+        return switch (layout) {
+            case DATE -> Path.of(LocalDate.now().toString(), fileName).toString();
+            case HASH_PREFIX -> hashPrefixed(fileName);
+        };
+    }
+
+    /**
+     * Path of an already stored file in the configured layout. The file name is kept. The date of a file is not
+     * known, so under DATE the path is left as it is.
+     */
+    public String relocate(String path) {
+        String fileName = Path.of(path).getFileName().toString();
+        return switch (layout) {
+            case DATE -> path;
+            case HASH_PREFIX -> fileName.length() < PREFIX_LENGTH * PREFIX_LEVELS ? path : hashPrefixed(fileName);
+        };
+    }
+
+    private String hashPrefixed(String fileName) {
+        Path path = Path.of(fileName.substring(0, PREFIX_LENGTH));
+        for (int level = 1; level < PREFIX_LEVELS; level++) {
+            path = path.resolve(fileName.substring(level * PREFIX_LENGTH, (level + 1) * PREFIX_LENGTH));
+        }
+        return path.resolve(fileName).toString();
+    }
+}
@@ -0,0 +1,274 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.entity.UploadSession;
+import com.tyv.storageservice.exception.ResourceNotFoundException;
+import com.tyv.storageservice.exception.ResourceUploadSessionException;
+import com.tyv.storageservice.model.Metadata;
+import com.tyv.storageservice.model.UploadChunk;
+import com.tyv.storageservice.model.UploadSessionStatus;
+import com.tyv.storageservice.repository.ResourceRepository;
+import com.tyv.storageservice.repository.UploadChunkRepository;
+import com.tyv.storageservice.repository.UploadSessionRepository;
+import com.tyv.storageservice.util.ContentDigest;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Uploads of large files in chunks. A session is created for a file of known size, the client sends
+ * the chunks in any order and any number of times, each with its SHA-256 in the Content-Digest header,
+ * and resumes an interrupted upload from the offset of the session. Completing the session turns the staged
+ * chunks into the file and creates the resource with the session's UUID. Sessions not completed within
+ * {@code ttl} are aborted in the background, by one replica at a time (see {@link JobLock}).
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ResumableUploadService {
+    private static final int MAX_CHUNKS = 10_000;
+    private static final String CLEANUP_JOB_NAME = "upload-session-cleanup";
+    private static final Pattern SHA_256_DIGEST = Pattern.compile("sha-256=:([A-Za-z0-9+/]+=*):");
+
+    private final FileStorage fileStorage;
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UploadChunkRepository uploadChunkRepository;
+    private final ResourceRepository resourceRepository;
+    private final ResourceMetadataCache resourceMetadataCache;
+    private final ResourcePathFactory resourcePathFactory;
+    private final JobLock jobLock;
+
+    @Value("${storage.upload-session.chunk-size:8MB}")
+    private DataSize chunkSize;
+
+    @Value("${storage.upload-session.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${storage.upload-session.cleanup-interval:1h}")
+    private Duration cleanupInterval;
+
+    private Disposable cleanup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        cleanup = Flux.interval(cleanupInterval, cleanupInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> jobLock.runExclusively(CLEANUP_JOB_NAME, abortExpired())
+                        .onErrorResume(throwable -> {
+                            log.error("Expired upload sessions cleanup failed", throwable);
+                            return Mono.empty();
+                        }), 0)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (nonNull(cleanup)) {
+            cleanup.dispose();
+        }
+    }
+
+    /**
+     * The chunk size grows for files that would need more than {@value MAX_CHUNKS} chunks of the configured size,
+     * the limit of S3 multipart uploads.
+     */
+    public Mono<UploadSessionStatus> createSession(Metadata metadata, String filename, String contentType, long size) {
+        if (size < 0) {
+            return Mono.error(new ResourceUploadSessionException("File size must not be negative: " + size));
+        }
+
+        UUID uuid = UUID.randomUUID();
+        UploadSession session = UploadSession.builder()
+                .createAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plus(ttl))
+                .uuid(uuid)
+                .category(metadata.category())
+                .bucket(metadata.bucket())
+                .contentType(contentType)
+                .title(filename)
+                .path(resourcePathFactory.create(uuid, filename))
+                .size(size)
+                .chunkSize(Math.max(chunkSize.toBytes(), (size + MAX_CHUNKS - 1) / MAX_CHUNKS))
+                .build();
+
+        return fileStorage.startUpload(toResource(session))
+                .flatMap(uploadId -> {
+                    session.setUploadId(uploadId);
+                    return uploadSessionRepository.save(session)
+                            .onErrorResume(ex -> fileStorage.abortUpload(toResource(session), uploadId).then(Mono.error(ex)));
+                })
+                .map(saved -> toStatus(saved, List.of()))
+                .doOnSuccess(status -> log.info("Upload session created: UUID={}, size={}, chunks={}",
+                        status.uuid(), status.size(), status.chunkCount()))
+                .doOnError(throwable -> log.error("Upload session creation error", throwable));
+    }
+
+    public Mono<UploadSessionStatus> getStatus(UUID uuid) {
+        return findSession(uuid)
+                .flatMap(session -> uploadChunkRepository.findAll(session.getId())
+                        .collectList()
+                        .map(chunks -> toStatus(session, chunks)));
+    }
+
+    /**
+     * The chunk counts as missing while it is being written, so a chunk that fails halfway, does not match
+     * its digest or has the wrong size is never used for the file. Content beyond the chunk's size is not written.
+     */
+    public Mono<UploadSessionStatus> saveChunk(UUID uuid, int number, String contentDigest, Flux<DataBuffer> content) {
+        return findSession(uuid)
+                .flatMap(session -> {
+                    if (number < 1 || number > session.getChunkCount()) {
+                        return Mono.error(new ResourceUploadSessionException("Chunk number " + number
+                                + " is out of range 1.." + session.getChunkCount()));
+                    }
+                    String expectedHash = parseDigest(contentDigest);
+                    long expectedSize = session.getChunkSize(number);
+                    ContentDigest digest = ContentDigest.sha256();
+
+                    return uploadChunkRepository.delete(session.getId(), number)
+                            .then(fileStorage.saveChunk(toResource(session), session.getUploadId(), number,
+                                            session.getChunkOffset(number),
+                                            digest.digest(DataBufferUtils.takeUntilByteCount(content, expectedSize)))
+                                    .map(Optional::of)
+                                    .defaultIfEmpty(Optional.empty()))
+                            .flatMap(tag -> {
+                                if (digest.getSize() != expectedSize) {
+                                    return Mono.error(new ResourceUploadSessionException("Chunk " + number + " has "
+                                            + digest.getSize() + " bytes, expected " + expectedSize));
+                                }
+                                if (!digest.getHash().equals(expectedHash)) {
+                                    return Mono.error(new ResourceUploadSessionException("Chunk " + number
+                                            + " does not match its Content-Digest"));
+                                }
+                                return uploadChunkRepository.save(session.getId(),
+                                        new UploadChunk(number, expectedSize, expectedHash, tag.orElse(null)));
+                            })
+                            .then(getStatus(uuid));
+                })
+                .doOnError(throwable -> log.warn("Upload chunk rejected: UUID={}, chunk={}: {}",
+                        uuid, number, throwable.getMessage()));
+    }
+
+    /**
+     * Assembles the file and creates the resource, the session is removed afterwards.
+     *
+     * @return UUID of the created resource, the same as the session's
+     */
+    public Mono<UUID> complete(UUID uuid) {
+        return findSession(uuid)
+                .flatMap(session -> uploadChunkRepository.findAll(session.getId())
+                        .collectList()
+                        .flatMap(chunks -> {
+                            if (chunks.size() != session.getChunkCount()) {
+                                return Mono.error(new ResourceUploadSessionException("Upload session [" + uuid
+                                        + "] is incomplete, received " + chunks.size() + " of "
+                                        + session.getChunkCount() + " chunks"));
+                            }
+
+                            StorageResource resource = toResource(session);
+                            return fileStorage.completeUpload(resource, session.getUploadId(), chunks)
+                                    .then(resourceRepository.save(resource))
+                                    .flatMap(saved -> uploadSessionRepository.delete(session)
+                                            .thenReturn(saved.getUuid()));
+                        }))
+                .doOnSuccess(resourceUuid -> {
+                    resourceMetadataCache.evict(resourceUuid);
+                    log.info("Resource created: UUID={}", resourceUuid);
+                })
+                .doOnError(throwable -> log.error("Upload session completion error: UUID={}", uuid, throwable));
+    }
+
+    public Mono<Void> abort(UUID uuid) {
+        return findSession(uuid)
+                .flatMap(this::abort);
+    }
+
+    /**
+     * @return the number of aborted sessions
+     */
+    public Mono<Long> abortExpired() {
+        return uploadSessionRepository.findAllByExpiresAtBefore(LocalDateTime.now())
+                .concatMap(session -> abort(session).thenReturn(session))
+                .count()
+                .doOnNext(aborted -> {
+                    if (aborted > 0) {
+                        log.info("Expired upload sessions aborted: {}", aborted);
+                    }
+                });
+    }
+
+    private Mono<Void> abort(UploadSession session) {
+        return fileStorage.abortUpload(toResource(session), session.getUploadId())
+                .then(uploadSessionRepository.delete(session))
+                .doOnSuccess(v -> log.info("Upload session aborted: UUID={}", session.getUuid()));
+    }
+
+    private Mono<UploadSession> findSession(UUID uuid) {
+        return uploadSessionRepository.findByUuid(uuid)
+                .filter(session -> session.getExpiresAt().isAfter(LocalDateTime.now()))
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Upload session [" + uuid + "] not found")));
+    }
+
+    /**
+     * @return hex SHA-256 from a Content-Digest header (RFC 9530) with a sha-256 digest
+     */
+    private String parseDigest(String contentDigest) {
+        Matcher matcher = isNull(contentDigest) ? null : SHA_256_DIGEST.matcher(contentDigest);
+        if (isNull(matcher) || !matcher.find()) {
+            throw new ResourceUploadSessionException("Content-Digest with sha-256 is required");
+        }
+
+        try {
+            return HexFormat.of().formatHex(Base64.getDecoder().decode(matcher.group(1)));
+        } catch (IllegalArgumentException e) {
+            throw new ResourceUploadSessionException("Malformed Content-Digest: " + contentDigest);
+        }
+    }
+
+    private StorageResource toResource(UploadSession session) {
+        return StorageResource.builder()
+                .createAt(LocalDateTime.now())
+                .updateAt(LocalDateTime.now())
+                .uuid(session.getUuid())
+                .category(session.getCategory())
+                .bucket(session.getBucket())
+                .contentType(session.getContentType())
+                .title(session.getTitle())
+                .path(session.getPath())
+                .build();
+    }
+
+    private UploadSessionStatus toStatus(UploadSession session, List<UploadChunk> chunks) {
+        long offset = 0;
+        for (int i = 0; i < chunks.size() && chunks.get(i).number() == i + 1; i++) {
+            offset += chunks.get(i).size();
+        }
+
+        return new UploadSessionStatus(session.getUuid(), session.getSize(), session.getChunkSize(),
+                session.getChunkCount(), chunks.stream().map(UploadChunk::number).toList(), offset,
+                session.getExpiresAt());
+    }
+}
@@ -0,0 +1,89 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.enums.Bucket;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyExistsException;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Knows which of the service's buckets exist. At startup every bucket is checked with HeadBucket in the
+ * background, a missing one is created on first use. Concurrent uploads to a missing bucket share one
+ * creation, a failed check or creation is forgotten so the next upload tries again.
+ */
+@Slf4j
+@Component
+@Profile({"awsStorage", "awsStorageTest"})
+@RequiredArgsConstructor
+public class S3BucketRegistry {
+
+    private final S3RequestFactory requestFactory;
+    private final S3AsyncClient s3Client;
+    private final Map<Bucket, Mono<Void>> buckets = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Flux.fromArray(Bucket.values())
+                .flatMap(bucket -> exists(bucket)
+                        .filter(Boolean::booleanValue)
+                        .doOnNext(exists -> buckets.putIfAbsent(bucket, Mono.empty())))
+                .subscribe(exists -> {
+                }, throwable -> log.warn("Bucket check failed, buckets will be checked on first use", throwable));
+    }
+
+    /**
+     * Completes once the bucket exists, creating it if needed.
+     */
+    public Mono<Void> ensure(Bucket bucket) {
+        return buckets.computeIfAbsent(bucket, this::check);
+    }
+
+    /**
+     * A failed check removes only itself, the bucket may have been forgotten and checked again meanwhile.
+     */
+    private Mono<Void> check(Bucket bucket) {
+        AtomicReference<Mono<Void>> check = new AtomicReference<>();
+        check.set(exists(bucket)
+                .flatMap(exists -> exists ? Mono.<Void>empty() : create(bucket))
+                .doOnError(throwable -> buckets.remove(bucket, check.get()))
+                .cache());
+        return check.get();
+    }
+
+    /**
+     * Forgets the bucket, for example after S3 reported it missing. The next {@link #ensure} checks it again.
+     */
+    public void forget(Bucket bucket) {
+        buckets.remove(bucket);
+    }
+
+    private Mono<Boolean> exists(Bucket bucket) {
+        return Mono.fromCompletionStage(() -> s3Client.headBucket(requestFactory.headBucket(bucket.getWithUUID())))
+                .thenReturn(true)
+                .onErrorReturn(NoSuchBucketException.class, false);
+    }
+
+    private Mono<Void> create(Bucket bucket) {
+        String name = bucket.getWithUUID();
+        return Mono.fromCompletionStage(() -> s3Client.createBucket(requestFactory.createBucket(name)))
+                .doOnNext(response -> log.info("Bucket '{}' has been created", name))
+                .onErrorResume(throwable -> throwable instanceof BucketAlreadyExistsException
+                                || throwable instanceof BucketAlreadyOwnedByYouException,
+                        throwable -> {
+                            log.warn("Bucket '{}' already exists, skipping", name);
+                            return Mono.empty();
+                        })
+                .then();
+    }
+}
@@ -2,8 +2,14 @@ package com.tyv.storageservice.service;
 
 import com.tyv.storageservice.config.AWSConfiguration;
 import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.ContentCoding;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.time.Duration;
+import java.util.List;
 
 @Service
 public class S3RequestFactory {
@@ -15,17 +21,124 @@ public class S3RequestFactory {
                 .build();
     }
 
+    public GetObjectRequest getObject(StorageResource resource, long position, long count) {
+        return GetObjectRequest.builder()
+                .bucket(resource.getBucket().getWithUUID())
+                .key(resource.getPath())
+                .range("bytes=" + position + "-" + (position + count - 1))
+                .build();
+    }
+
+    /**
+     * Download URL for the client, S3 answers with the same Content-Type and Content-Disposition as the service.
+     * A compressed object is sent as is with Content-Encoding, the client decompresses it.
+     */
+    public GetObjectPresignRequest presignGetObject(StorageResource resource, Duration ttl) {
+        return GetObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .getObjectRequest(GetObjectRequest.builder()
+                        .bucket(resource.getBucket().getWithUUID())
+                        .key(resource.getPath())
+                        .responseContentType(resource.getContentType())
+                        .responseContentDisposition("attachment; filename=\"" + resource.getTitle() + "\"")
+                        .responseContentEncoding(resource.getContentCoding() == ContentCoding.IDENTITY
+                                ? null
+                                : resource.getContentCoding().getToken())
+                        .build())
+                .build();
+    }
+
+    /**
+     * Upload URL for the client, the Content-Type is signed and has to be sent with the upload.
+     */
+    public PutObjectPresignRequest presignPutObject(StorageResource resource, Duration ttl) {
+        return PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(resource.getBucket().getWithUUID())
+                        .key(resource.getPath())
+                        .contentType(resource.getContentType())
+                        .build())
+                .build();
+    }
+
+    /**
+     * The SDK sends the CRC32C of the body, S3 rejects the object if the bytes it received do not match.
+     */
     public PutObjectRequest putObject(StorageResource resource) {
         return PutObjectRequest.builder()
                 .bucket(resource.getBucket().getWithUUID())
                 .key(resource.getPath())
+                .checksumAlgorithm(ChecksumAlgorithm.CRC32_C)
+                .build();
+    }
+
+    public CreateMultipartUploadRequest createMultipartUpload(StorageResource resource) {
+        return createMultipartUpload(resource, null);
+    }
+
+    /**
+     * With a checksum algorithm every part is checked by S3 as it is uploaded, and the parts have to be
+     * uploaded and completed with the same algorithm.
+     */
+    public CreateMultipartUploadRequest createMultipartUpload(StorageResource resource,
+                                                              ChecksumAlgorithm checksumAlgorithm) {
+        return CreateMultipartUploadRequest.builder()
+                .bucket(resource.getBucket().getWithUUID())
+                .key(resource.getPath())
+                .checksumAlgorithm(checksumAlgorithm)
+                .build();
+    }
+
+    public UploadPartRequest uploadPart(StorageResource resource, String uploadId, int partNumber) {
+        return uploadPart(resource, uploadId, partNumber, null);
+    }
+
+    public UploadPartRequest uploadPart(StorageResource resource, String uploadId, int partNumber,
+                                        ChecksumAlgorithm checksumAlgorithm) {
+        return UploadPartRequest.builder()
+                .bucket(resource.getBucket().getWithUUID())
+                .key(resource.getPath())
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .checksumAlgorithm(checksumAlgorithm)
+                .build();
+    }
+
+    public CompleteMultipartUploadRequest completeMultipartUpload(StorageResource resource, String uploadId,
+                                                                  List<CompletedPart> parts) {
+        return CompleteMultipartUploadRequest.builder()
+                .bucket(resource.getBucket().getWithUUID())
+                .key(resource.getPath())
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder()
+                        .parts(parts)
+                        .build())
                 .build();
     }
 
-    public DeleteObjectRequest deleteObject(StorageResource resource) {
-        return DeleteObjectRequest.builder()
+    public AbortMultipartUploadRequest abortMultipartUpload(StorageResource resource, String uploadId) {
+        return AbortMultipartUploadRequest.builder()
                 .bucket(resource.getBucket().getWithUUID())
                 .key(resource.getPath())
+                .uploadId(uploadId)
+                .build();
+    }
+
+    /**
+     * Quiet mode, the response lists only the keys that could not be deleted.
+     */
+    public DeleteObjectsRequest deleteObjects(String bucketName, List<StorageResource> resources) {
+        return DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder()
+                        .objects(resources.stream()
+                                .map(resource -> ObjectIdentifier.builder()
+                                        .key(resource.getPath())
+                                        .build())
+                                .toList())
+                        .quiet(true)
+                        .build())
                 .build();
     }
 
@@ -36,6 +149,19 @@ public class S3RequestFactory {
                 .build();
     }
 
+    public ListObjectsV2Request listObjects(String bucketName, int pageSize) {
+        return ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .maxKeys(pageSize)
+                .build();
+    }
+
+    public HeadBucketRequest headBucket(String bucketName) {
+        return HeadBucketRequest.builder()
+                .bucket(bucketName)
+                .build();
+    }
+
     public CreateBucketRequest createBucket(String bucketName) {
         return CreateBucketRequest.builder()
                 .bucket(bucketName)
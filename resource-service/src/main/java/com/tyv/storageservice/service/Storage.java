@@ -1,7 +1,13 @@
 package com.tyv.storageservice.service;
 
 import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.model.BatchUploadResult;
 import com.tyv.storageservice.model.Metadata;
+import com.tyv.storageservice.model.PresignedUpload;
+import com.tyv.storageservice.model.PresignedUrl;
+import com.tyv.storageservice.model.ResourceFilter;
+import com.tyv.storageservice.model.ResourcePage;
+import com.tyv.storageservice.model.ResourceStream;
 import org.springframework.http.codec.multipart.FilePart;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -11,7 +17,19 @@ import java.util.UUID;
 
 public interface Storage {
     Mono<StorageResource> getFileDataByUUID(Mono<String> uuid);
+    Mono<ResourceStream> getFileStreamByUUID(Mono<String> uuid);
+    Mono<StorageResource> getResourceByUUID(Mono<String> uuid);
+    Flux<StorageResource> getResourcesByUUIDs(List<UUID> uuids);
+    Mono<ResourcePage> findResources(ResourceFilter filter, String cursor, int limit);
+    Mono<Long> getContentLength(StorageResource resource);
+    Mono<ResourceStream> getFileStream(StorageResource resource);
+    Mono<ResourceStream> getDecodedFileStream(StorageResource resource);
+    Mono<ResourceStream> getFileStream(StorageResource resource, long position, long count);
+    Mono<PresignedUrl> getDownloadUrl(StorageResource resource);
     Mono<UUID> createResourceAndGetUUID(Mono<Metadata> metadata, Mono<FilePart> file);
     Mono<List<UUID>> createResourceListAndGetUUIDs(Mono<Metadata> metadata, Flux<FilePart> files);
+    Flux<BatchUploadResult> createResources(Mono<Metadata> metadata, Flux<FilePart> files);
+    Mono<PresignedUpload> createResourceUploadUrl(Mono<Metadata> metadata, String filename, String contentType);
     Mono<Void> deleteResourceByUUID(Mono<String> uuid);
+    Mono<List<UUID>> deleteResourcesByUUIDs(List<UUID> uuids);
 }
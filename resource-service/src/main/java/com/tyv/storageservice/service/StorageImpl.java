@@ -1,23 +1,48 @@
 package com.tyv.storageservice.service;
 
+import com.tyv.storageservice.model.BatchUploadResult;
 import com.tyv.storageservice.model.Metadata;
+import com.tyv.storageservice.model.PresignedUpload;
+import com.tyv.storageservice.model.PresignedUrl;
+import com.tyv.storageservice.model.ResourceCursor;
+import com.tyv.storageservice.model.ResourceFilter;
+import com.tyv.storageservice.model.ResourcePage;
+import com.tyv.storageservice.model.ResourceStream;
+import com.tyv.storageservice.model.ResourceSummary;
 import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.ContentCoding;
+import com.tyv.storageservice.exception.ResourceBatchTooLargeException;
+import com.tyv.storageservice.exception.ResourceException;
+import com.tyv.storageservice.exception.ResourceListingException;
 import com.tyv.storageservice.exception.ResourceNotFoundException;
 import com.tyv.storageservice.exception.ResourceReadingException;
+import com.tyv.storageservice.exception.ResourceUploadNotSupportedException;
+import com.tyv.storageservice.repository.BlobRepository;
+import com.tyv.storageservice.repository.ResourceBatchRepository;
 import com.tyv.storageservice.repository.ResourceRepository;
+import com.tyv.storageservice.repository.ResourceSearchRepository;
+import com.tyv.storageservice.util.ContentChecksum;
+import com.tyv.storageservice.util.ContentDigest;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.publisher.SignalType;
 
-import java.nio.file.Path;
-import java.time.LocalDate;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 @Service
 @RequiredArgsConstructor
@@ -27,16 +52,66 @@ public class StorageImpl implements Storage {
 
     private final FileStorage fileStorage;
     private final ResourceRepository resourceRepository;
+    private final ResourceSearchRepository resourceSearchRepository;
+    private final BlobRepository blobRepository;
+    private final ResourceMetadataCache resourceMetadataCache;
+    private final ContentCodec contentCodec;
+    private final ResourcePathFactory resourcePathFactory;
+    private final ChecksumVerifier checksumVerifier;
+
+    @Value("${storage.deduplication.enabled:false}")
+    private boolean deduplication;
+
+    @Value("${storage.batch.insert-size:50}")
+    private int batchInsertSize;
+
+    @Value("${storage.batch.insert-delay:100ms}")
+    private Duration batchInsertDelay;
+
+    @Value("${storage.batch.concurrency:4}")
+    private int batchConcurrency;
+
+    @Value("${storage.batch.max-fetch-size:100}")
+    private int batchMaxFetchSize;
+
+    @Value("${storage.batch.max-delete-size:1000}")
+    private int batchMaxDeleteSize;
+
+    @Value("${storage.listing.max-page-size:1000}")
+    private int listingMaxPageSize;
+
+    @PostConstruct
+    public void init() {
+        if (batchInsertSize > ResourceBatchRepository.MAX_INSERT_SIZE) {
+            log.warn("storage.batch.insert-size={} exceeds the bind parameter limit of a statement, {} is used",
+                    batchInsertSize, ResourceBatchRepository.MAX_INSERT_SIZE);
+            batchInsertSize = ResourceBatchRepository.MAX_INSERT_SIZE;
+        }
+    }
 
     @Override
     public Mono<StorageResource> getFileDataByUUID(Mono<String> uuid) {
         return uuid.flatMap(uuidStr ->
-                        Mono.fromCallable(() -> resourceRepository.findByUuid(UUID.fromString(uuidStr)))
-                                .subscribeOn(Schedulers.boundedElastic())
-                                .filter(Optional::isPresent)
-                                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Resource by UUID [" + uuidStr + "] not found")))
-                                .map(Optional::get)
+                        findResource(uuidStr)
                                 .flatMap(fileStorage::getData)
+                                .flatMap(checksumVerifier::verify)
+                                .doOnNext(resource -> resource.setData(
+                                        contentCodec.decode(resource.getContentCoding(), resource.getData())))
+                                .onErrorMap(throwable -> ! (throwable instanceof ResourceNotFoundException),
+                                        e -> new ResourceReadingException("Resource reading error, UUID=" + uuidStr, e))
+                                )
+                .doOnError(ResourceNotFoundException.class, error -> log.warn(error.getMessage()))
+                .doOnError(throwable -> ! (throwable instanceof ResourceNotFoundException),
+                        error -> log.error(error.getMessage(), error));
+    }
+
+    @Override
+    public Mono<ResourceStream> getFileStreamByUUID(Mono<String> uuid) {
+        return uuid.flatMap(uuidStr ->
+                        findResource(uuidStr)
+                                .flatMap(fileStorage::stream)
+                                .map(checksumVerifier::verify)
+                                .map(contentCodec::decode)
                                 .onErrorMap(throwable -> ! (throwable instanceof ResourceNotFoundException),
                                         e -> new ResourceReadingException("Resource reading error, UUID=" + uuidStr, e))
                                 )
@@ -45,6 +120,102 @@ public class StorageImpl implements Storage {
                         error -> log.error(error.getMessage(), error));
     }
 
+    @Override
+    public Mono<StorageResource> getResourceByUUID(Mono<String> uuid) {
+        return uuid.flatMap(this::findResource)
+                .doOnError(ResourceNotFoundException.class, error -> log.warn(error.getMessage()));
+    }
+
+    /**
+     * Finds all resources with one query, bypassing the metadata cache. Resources are emitted in the order
+     * of the requested UUIDs, duplicates and unknown UUIDs are skipped.
+     */
+    @Override
+    public Flux<StorageResource> getResourcesByUUIDs(List<UUID> uuids) {
+        List<UUID> distinctUuids = uuids.stream().distinct().toList();
+        if (distinctUuids.size() > batchMaxFetchSize) {
+            return Flux.error(new ResourceBatchTooLargeException(
+                    "Too many resources requested: " + distinctUuids.size() + ", maximum is " + batchMaxFetchSize));
+        }
+
+        return resourceRepository.findAllByUuidIn(distinctUuids)
+                .collectMap(StorageResource::getUuid)
+                .flatMapIterable(resources -> distinctUuids.stream()
+                        .map(resources::get)
+                        .filter(Objects::nonNull)
+                        .toList());
+    }
+
+    /**
+     * One row more than the page is read to tell whether another page follows, the cursor of the next page
+     * points to the last row of this one.
+     */
+    @Override
+    public Mono<ResourcePage> findResources(ResourceFilter filter, String cursor, int limit) {
+        if (limit < 1 || limit > listingMaxPageSize) {
+            return Mono.error(new ResourceListingException(
+                    "Page size must be between 1 and " + listingMaxPageSize + ": " + limit));
+        }
+
+        return Mono.defer(() -> resourceSearchRepository.find(filter,
+                                isNull(cursor) ? null : ResourceCursor.decode(cursor), limit + 1)
+                        .collectList())
+                .map(resources -> resources.size() > limit
+                        ? new ResourcePage(toSummaries(resources.subList(0, limit)),
+                                ResourceCursor.after(resources.get(limit - 1)).encode())
+                        : new ResourcePage(toSummaries(resources), null))
+                .doOnError(ResourceListingException.class, error -> log.warn(error.getMessage()));
+    }
+
+    private List<ResourceSummary> toSummaries(List<StorageResource> resources) {
+        return resources.stream()
+                .map(ResourceSummary::of)
+                .toList();
+    }
+
+    @Override
+    public Mono<Long> getContentLength(StorageResource resource) {
+        return fileStorage.contentLength(resource)
+                .onErrorMap(e -> new ResourceReadingException("Resource reading error, UUID=" + resource.getUuid(), e))
+                .doOnError(error -> log.error(error.getMessage(), error));
+    }
+
+    @Override
+    public Mono<ResourceStream> getFileStream(StorageResource resource) {
+        return fileStorage.stream(resource)
+                .map(checksumVerifier::verify)
+                .onErrorMap(e -> new ResourceReadingException("Resource reading error, UUID=" + resource.getUuid(), e))
+                .doOnError(error -> log.error(error.getMessage(), error));
+    }
+
+    /**
+     * The whole resource with its content decompressed if it is stored compressed.
+     */
+    @Override
+    public Mono<ResourceStream> getDecodedFileStream(StorageResource resource) {
+        return getFileStream(resource)
+                .map(contentCodec::decode);
+    }
+
+    @Override
+    public Mono<ResourceStream> getFileStream(StorageResource resource, long position, long count) {
+        return fileStorage.stream(resource, position, count)
+                .onErrorMap(e -> new ResourceReadingException("Resource reading error, UUID=" + resource.getUuid(), e))
+                .doOnError(error -> log.error(error.getMessage(), error));
+    }
+
+    @Override
+    public Mono<PresignedUrl> getDownloadUrl(StorageResource resource) {
+        return fileStorage.getDownloadUrl(resource)
+                .onErrorMap(e -> new ResourceReadingException("Resource reading error, UUID=" + resource.getUuid(), e))
+                .doOnError(error -> log.error(error.getMessage(), error));
+    }
+
+    private Mono<StorageResource> findResource(String uuid) {
+        return resourceMetadataCache.findByUuid(UUID.fromString(uuid))
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Resource by UUID [" + uuid + "] not found")));
+    }
+
     @Override
     public Mono<UUID> createResourceAndGetUUID(Mono<Metadata> metadata, Mono<FilePart> file) {
         return metadata.flatMap(metadataRequestDto ->
@@ -54,35 +225,219 @@ public class StorageImpl implements Storage {
                 .doOnError(throwable -> log.error("Resource creation error", throwable));
     }
 
+    /**
+     * Creates the resource row and returns a URL the client uploads the file to. The file is not checked
+     * here, until the client has uploaded it the resource cannot be read. The client uploads the bytes as they are,
+     * so such a resource is always stored uncompressed.
+     */
+    @Override
+    public Mono<PresignedUpload> createResourceUploadUrl(Mono<Metadata> metadata, String filename, String contentType) {
+        return metadata.flatMap(metadataRequestDto ->
+                        resourceRepository.save(createStorageResource(metadataRequestDto, filename, contentType))
+                                .flatMap(resource -> fileStorage.getUploadUrl(resource)
+                                        .switchIfEmpty(Mono.error(new ResourceUploadNotSupportedException(
+                                                "Direct upload is not supported by the storage")))
+                                        .onErrorResume(ex -> resourceRepository.delete(resource).then(Mono.error(ex)))
+                                        .map(url -> new PresignedUpload(resource.getUuid(), url.url(), contentType,
+                                                url.expiresAt()))))
+                .doOnSuccess(upload -> log.info("Resource upload URL created: UUID={}", upload.uuid()))
+                .doOnError(throwable -> log.error("Resource upload URL creation error", throwable));
+    }
+
     @Override
     public Mono<List<UUID>> createResourceListAndGetUUIDs(Mono<Metadata> metadata, Flux<FilePart> files) {
-        return metadata.flatMapMany(metadataRequestDto ->
-                        files.flatMap(filePart -> createResource(metadataRequestDto, filePart))
-                ).collectList()
+        return createResources(metadata, files)
+                .<UUID>handle((result, sink) -> {
+                    if (result.isCreated()) {
+                        sink.next(result.uuid());
+                    } else {
+                        sink.error(new ResourceException("Resource creation error, file=" + result.filename()
+                                + ": " + result.error()));
+                    }
+                })
+                .collectList()
                 .doOnSuccess(uuid -> log.info("Resource created: UUID={}", uuid))
                 .doOnError(throwable -> log.error("Resource list creation error", throwable));
     }
 
+    /**
+     * Rows are inserted in chunks of {@code batchInsertSize} with one statement per chunk, a chunk is not held back
+     * longer than {@code batchInsertDelay} waiting for more files of a slow request body, at most
+     * {@code batchConcurrency} files are stored at the same time. Results are emitted as files finish,
+     * a failed file does not stop the others. A row is inserted before its file is stored, so the rows whose files
+     * were not stored yet are deleted if the upload is cancelled or fails as a whole.
+     */
+    @Override
+    public Flux<BatchUploadResult> createResources(Mono<Metadata> metadata, Flux<FilePart> files) {
+        return metadata.flatMapMany(metadataRequestDto -> Flux.defer(() -> {
+            Map<UUID, StorageResource> unstored = new ConcurrentHashMap<>();
+            return files
+                    .bufferTimeout(batchInsertSize, batchInsertDelay, true)
+                    .concatMap(fileParts -> insertResources(metadataRequestDto, fileParts, unstored))
+                    .flatMap(Function.identity(), batchConcurrency)
+                    .doFinally(signal -> {
+                        if (signal != SignalType.ON_COMPLETE) {
+                            deleteUnstored(unstored);
+                        }
+                    });
+        }));
+    }
+
+    /**
+     * The resources are tracked as unstored before the statement is sent, a cancelled statement may still insert
+     * its rows.
+     */
+    private Flux<Mono<BatchUploadResult>> insertResources(Metadata metadata, List<FilePart> fileParts,
+                                                          Map<UUID, StorageResource> unstored) {
+        List<StorageResource> resources = fileParts.stream()
+                .map(filePart -> createStorageResource(metadata, filePart))
+                .toList();
+        resources.forEach(resource -> unstored.put(resource.getUuid(), resource));
+
+        return resourceRepository.insertAll(resources)
+                .zipWithIterable(fileParts)
+                .map(resourceFile -> storeFile(resourceFile.getT1(), resourceFile.getT2())
+                        .thenReturn(BatchUploadResult.created(resourceFile.getT2().filename(),
+                                resourceFile.getT1().getUuid()))
+                        .doOnNext(result -> log.info("Resource created: UUID={}", result.uuid()))
+                        .onErrorResume(throwable -> {
+                            log.error("Resource creation error, file={}", resourceFile.getT2().filename(), throwable);
+                            return Mono.just(BatchUploadResult.failed(resourceFile.getT2().filename(),
+                                    "Resource creation error"));
+                        })
+                        .doFinally(signal -> {
+                            if (signal != SignalType.CANCEL) {
+                                unstored.remove(resourceFile.getT1().getUuid());
+                            }
+                        }))
+                .onErrorResume(throwable -> {
+                    log.error("Resource metadata saving error, files={}", fileParts.size(), throwable);
+                    resources.forEach(resource -> unstored.remove(resource.getUuid()));
+                    return Flux.fromIterable(fileParts)
+                            .map(filePart -> Mono.just(BatchUploadResult.failed(filePart.filename(),
+                                    "Resource metadata saving error")));
+                });
+    }
+
+    /**
+     * Runs detached from the cancelled upload. A file stored partially is left to the reconciliation.
+     */
+    private void deleteUnstored(Map<UUID, StorageResource> unstored) {
+        if (unstored.isEmpty()) {
+            return;
+        }
+
+        List<UUID> uuids = List.copyOf(unstored.keySet());
+        resourceRepository.deleteAllByUuidIn(uuids)
+                .subscribe(deleted -> log.warn("Batch upload interrupted, resources without files deleted: {}", deleted),
+                        throwable -> log.error("Resources without files were not deleted: UUIDs={}", uuids, throwable));
+    }
+
+    /**
+     * The content is hashed while it is stored, the hash is kept as the resource's ETag.
+     */
     private Mono<UUID> createResource(Metadata metadata, FilePart filePart) {
-        StorageResource storageResource = createStorageResource(metadata, filePart);
-        Mono<Void> saveMetadata = Mono.fromCallable(() -> resourceRepository.save(storageResource))
-                .subscribeOn(Schedulers.boundedElastic())
+        return resourceRepository.save(createStorageResource(metadata, filePart))
+                .flatMap(storageResource -> storeFile(storageResource, filePart)
+                        .thenReturn(storageResource.getUuid()));
+    }
+
+    /**
+     * Stores the file of an already saved resource row, the row is deleted if the file cannot be stored.
+     * The digest is taken from the uploaded bytes, before the content is encoded for storage,
+     * the checksum from the stored bytes, after it is encoded.
+     */
+    private Mono<Void> storeFile(StorageResource storageResource, FilePart filePart) {
+        ContentDigest contentDigest = ContentDigest.sha256();
+        ContentChecksum contentChecksum = ContentChecksum.crc32c();
+        Flux<DataBuffer> content = contentChecksum.checksum(contentCodec.encode(storageResource.getContentCoding(),
+                contentDigest.digest(filePart.content())));
+
+        Mono<Void> saveFile = deduplication
+                ? saveDeduplicatedFile(storageResource, content, contentDigest, contentChecksum)
+                : saveFile(storageResource, content, contentDigest, contentChecksum);
+
+        return saveFile
+                .onErrorResume(ex -> resourceRepository.delete(storageResource).then(Mono.error(ex)));
+    }
+
+    private Mono<Void> saveFile(StorageResource storageResource, Flux<DataBuffer> content, ContentDigest contentDigest,
+                                ContentChecksum contentChecksum) {
+        return fileStorage.save(storageResource, content)
+                .then(Mono.defer(() -> {
+                    storageResource.setContentHash(contentDigest.getHash());
+                    storageResource.setChecksum(contentChecksum.getValue());
+                    return resourceRepository.save(storageResource)
+                            .onErrorResume(ex -> fileStorage.deleteFile(storageResource).then(Mono.error(ex)));
+                }))
                 .then();
+    }
+
+    /**
+     * Stores the file and looks its hash up among the stored blobs. If a blob with the same hash already exists
+     * in the bucket, the uploaded copy is removed and the resource points to the existing blob. The checksum
+     * of the uploaded copy is kept for the existing blob only if the content is stored as uploaded, an encoded copy
+     * is not guaranteed to have the same bytes.
+     */
+    private Mono<Void> saveDeduplicatedFile(StorageResource storageResource, Flux<DataBuffer> content,
+                                            ContentDigest contentDigest, ContentChecksum contentChecksum) {
+        String uploadedPath = storageResource.getPath();
 
-        Mono<Void> saveFile = fileStorage.save(storageResource, filePart);
+        return fileStorage.save(storageResource, content)
+                .then(Mono.defer(() -> blobRepository.acquire(storageResource.getBucket(),
+                        blobHash(contentDigest.getHash(), storageResource.getContentCoding()),
+                        uploadedPath, contentDigest.getSize())))
+                .flatMap(blobPath -> {
+                    storageResource.setBlobHash(blobHash(contentDigest.getHash(), storageResource.getContentCoding()));
+                    storageResource.setContentHash(contentDigest.getHash());
+                    if (blobPath.equals(uploadedPath) || storageResource.getContentCoding() == ContentCoding.IDENTITY) {
+                        storageResource.setChecksum(contentChecksum.getValue());
+                    }
+                    Mono<Void> linkBlob = blobPath.equals(uploadedPath)
+                            ? Mono.empty()
+                            : fileStorage.deleteFile(storageResource)
+                                    .doOnNext(deleted -> {
+                                        if (!deleted) {
+                                            log.warn("Duplicate file was not deleted: path={}", uploadedPath);
+                                        }
+                                    })
+                                    .then(Mono.fromRunnable(() -> storageResource.setPath(blobPath)));
 
-        return saveMetadata
-                .then(saveFile)
-                .onErrorResume(ex ->
-                        Mono.fromRunnable(() -> resourceRepository.delete(storageResource))
-                                .subscribeOn(Schedulers.boundedElastic())
-                                .then(Mono.error(ex)))
-                .thenReturn(storageResource.getUuid());
+                    return linkBlob
+                            .then(resourceRepository.save(storageResource))
+                            .onErrorResume(ex -> releaseBlob(storageResource).then(Mono.error(ex)))
+                            .then();
+                });
+    }
+
+    private Mono<Void> releaseBlob(StorageResource resource) {
+        return blobRepository.release(resource.getBucket(), resource.getBlobHash())
+                .filter(Boolean::booleanValue)
+                .flatMap(released -> fileStorage.deleteFile(resource))
+                .doOnNext(deleted -> {
+                    if (!deleted) {
+                        log.warn("Blob file was not deleted: hash={}, path={}", resource.getBlobHash(), resource.getPath());
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * The same content stored with different codings gives different files, so the coding is part of the blob key.
+     */
+    private String blobHash(String contentHash, ContentCoding coding) {
+        return coding == ContentCoding.IDENTITY ? contentHash : contentHash + "." + coding.getToken();
     }
 
     private StorageResource createStorageResource(Metadata metadata, FilePart filePart) {
+        StorageResource resource = createStorageResource(metadata, filePart.filename(),
+                Objects.requireNonNull(filePart.headers().getContentType()).toString());
+        resource.setContentCoding(contentCodec.codingFor(metadata.category()));
+        return resource;
+    }
+
+    private StorageResource createStorageResource(Metadata metadata, String filename, String contentType) {
         UUID uuid = UUID.randomUUID();
-        Path path = createPath(uuid, filePart.filename());
 
         return StorageResource.builder()
                 .createAt(LocalDateTime.now())
@@ -90,38 +445,81 @@ public class StorageImpl implements Storage {
                 .category(metadata.category())
                 .bucket(metadata.bucket())
                 .uuid(uuid)
-                .title(filePart.filename())
-                .path(path.toString())
-                .contentType(Objects.requireNonNull(filePart.headers().getContentType()).toString())
+                .title(filename)
+                .path(resourcePathFactory.create(uuid, filename))
+                .contentType(contentType)
                 .build();
     }
 
-    private Path createPath(UUID uuid, String filename) {
-        return Path.of(LocalDate.now().toString())
-                .resolve(uuid.toString() + '-' + filename);
-    }
-
     @Override
     public Mono<Void> deleteResourceByUUID(Mono<String> uuidMono) {
         return uuidMono.flatMap(uuid ->
-                        Mono.fromCallable(() -> resourceRepository.findByUuid(UUID.fromString(uuid)))
-                                .subscribeOn(Schedulers.boundedElastic())
-                                .filter(Optional::isPresent)
+                        resourceRepository.findByUuid(UUID.fromString(uuid))
                                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Resource by uuid [" + uuid + "] not found")))
-                                .map(Optional::get)
-                                .flatMap(resource ->
-                                        fileStorage.deleteFile(resource)
+                                .flatMap(resource -> isNull(resource.getBlobHash())
+                                        ? fileStorage.deleteFile(resource)
                                                 .filter(Boolean::booleanValue)
                                                 .switchIfEmpty(Mono.error(new RuntimeException("File deletion failed: UUID=" + uuid)))
-                                                .flatMap(result -> Mono.fromRunnable(new Runnable() {
-                                                    @Override
-                                                    public void run() {
-                                                        resourceRepository.delete(resource);
-                                                    }
-                                                })))
+                                                .flatMap(result -> resourceRepository.delete(resource))
+                                        : deleteDeduplicatedResource(resource))
                                 .then()
+                                .doFinally(signal -> resourceMetadataCache.evict(UUID.fromString(uuid)))
                                 .doOnSuccess(v -> log.info("Resource deleted: UUID={}", uuid))
                                 .doOnError(throwable -> log.warn("Resource deletion failed: UUID={}", uuid))
                 );
     }
+
+    /**
+     * Deletes the files of all found resources in bulk, then their rows with one statement. A resource whose file
+     * could not be deleted keeps its row and is not reported. Deduplicated resources release their blobs
+     * after the rows are gone, like a single deletion does.
+     *
+     * @return UUIDs of the deleted resources
+     */
+    @Override
+    public Mono<List<UUID>> deleteResourcesByUUIDs(List<UUID> uuids) {
+        List<UUID> distinctUuids = uuids.stream().distinct().toList();
+        if (distinctUuids.size() > batchMaxDeleteSize) {
+            return Mono.error(new ResourceBatchTooLargeException(
+                    "Too many resources to delete: " + distinctUuids.size() + ", maximum is " + batchMaxDeleteSize));
+        }
+
+        return resourceRepository.findAllByUuidIn(distinctUuids)
+                .collectList()
+                .flatMap(resources -> {
+                    List<StorageResource> deduplicated = resources.stream()
+                            .filter(resource -> nonNull(resource.getBlobHash()))
+                            .toList();
+                    List<StorageResource> plain = resources.stream()
+                            .filter(resource -> isNull(resource.getBlobHash()))
+                            .toList();
+
+                    return fileStorage.deleteFiles(plain)
+                            .concatWith(Flux.fromIterable(deduplicated))
+                            .collectList();
+                })
+                .filter(deletable -> !deletable.isEmpty())
+                .flatMap(deletable -> resourceRepository.deleteAllById(deletable.stream()
+                                .map(StorageResource::getId)
+                                .toList())
+                        .thenMany(Flux.fromIterable(deletable)
+                                .filter(resource -> nonNull(resource.getBlobHash()))
+                                .concatMap(this::releaseBlob))
+                        .then(Mono.fromSupplier(() -> deletable.stream()
+                                .map(StorageResource::getUuid)
+                                .toList())))
+                .defaultIfEmpty(List.of())
+                .doFinally(signal -> distinctUuids.forEach(resourceMetadataCache::evict))
+                .doOnSuccess(deleted -> log.info("Resources deleted: {} of {}", deleted.size(), distinctUuids.size()))
+                .doOnError(throwable -> log.warn("Resource batch deletion failed", throwable));
+    }
+
+    /**
+     * The row is deleted before the blob reference is released, so a failure in between can only leave
+     * an unreferenced blob behind, never a blob that is deleted while still in use.
+     */
+    private Mono<Void> deleteDeduplicatedResource(StorageResource resource) {
+        return resourceRepository.delete(resource)
+                .then(releaseBlob(resource));
+    }
 }
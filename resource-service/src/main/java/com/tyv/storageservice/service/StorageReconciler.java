@@ -0,0 +1,271 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.model.ReconciliationReport;
+import com.tyv.storageservice.model.ResourcePath;
+import com.tyv.storageservice.model.StoredFile;
+import com.tyv.storageservice.repository.ResourcePathRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Finds stored files without a resource row (orphan files) and resource rows without a stored file
+ * (dangling resources), as left by a crash between saving a row and its file, by a presigned upload that never
+ * happened and the like. Every bucket is listed page by page in path order, and each page is compared with
+ * the rows in the same path range, so neither side is ever held in memory as a whole.
+ * Files and rows younger than {@code gracePeriod} belong to uploads in progress and are left alone, every finding
+ * is checked once more right before it is repaired. Listing is throttled to {@code rate} files per second.
+ * A scheduled run is skipped while another replica is running one (see {@link JobLock}).
+ * Enabled with storage.reconciliation.enabled, findings are only reported unless storage.reconciliation.repair is set.
+ * A bucket that cannot be listed is skipped. Dangling resources are not deleted when no file of their bucket was
+ * listed, or once they exceed {@code maxDanglingRatio} of the bucket's rows: a storage that lost its files
+ * (an unmounted volume, a wrong bucket) is reported rather than emptied.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "storage.reconciliation.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class StorageReconciler {
+    private static final String FILES_METER = "storage.reconciliation.files";
+    private static final String ORPHAN_FILES_METER = "storage.reconciliation.orphan-files";
+    private static final String DANGLING_RESOURCES_METER = "storage.reconciliation.dangling-resources";
+    private static final String RUNS_METER = "storage.reconciliation.runs";
+    private static final String JOB_NAME = "storage-reconciliation";
+
+    private final FileStorage fileStorage;
+    private final ResourcePathRepository resourcePathRepository;
+    private final Storage storage;
+    private final MeterRegistry meterRegistry;
+    private final JobLock jobLock;
+
+    @Value("${storage.reconciliation.initial-delay:10m}")
+    private Duration initialDelay;
+
+    @Value("${storage.reconciliation.interval:24h}")
+    private Duration interval;
+
+    @Value("${storage.reconciliation.page-size:1000}")
+    private int pageSize;
+
+    @Value("${storage.reconciliation.rate:2000}")
+    private int rate;
+
+    @Value("${storage.reconciliation.grace-period:1h}")
+    private Duration gracePeriod;
+
+    @Value("${storage.reconciliation.repair:false}")
+    private boolean repair;
+
+    @Value("${storage.reconciliation.max-dangling-ratio:0.1}")
+    private double maxDanglingRatio;
+
+    private Disposable schedule;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        schedule = Flux.interval(initialDelay, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> jobLock.runExclusively(JOB_NAME, reconcile())
+                        .onErrorResume(throwable -> {
+                            log.error("Storage reconciliation failed", throwable);
+                            return Mono.empty();
+                        }), 0)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (nonNull(schedule)) {
+            schedule.dispose();
+        }
+    }
+
+    public Mono<ReconciliationReport> reconcile() {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return Flux.fromArray(Bucket.values())
+                    .concatMap(this::reconcile)
+                    .reduce(ReconciliationReport.EMPTY, ReconciliationReport::plus)
+                    .doOnNext(report -> log.info("Storage reconciliation finished: files={}, orphan files={}, dangling resources={}",
+                            report.files(), report.orphanFiles(), report.danglingResources()))
+                    .doFinally(signal -> sample.stop(meterRegistry.timer(RUNS_METER, "result", signal.name().toLowerCase())));
+        });
+    }
+
+    /**
+     * A page of files covers the paths after the last file of the previous page up to its own last file,
+     * the rows after the last file of the bucket are compared with an empty page.
+     */
+    private Mono<ReconciliationReport> reconcile(Bucket bucket) {
+        return resourcePathRepository.countByBucket(bucket)
+                .flatMap(rows -> {
+                    RepairBudget budget = new RepairBudget(rows);
+                    AtomicReference<String> after = new AtomicReference<>("");
+                    return fileStorage.list(bucket, pageSize)
+                            .concatMap(files -> reconcilePage(bucket, files, after.getAndSet(files.getLast().path()),
+                                    files.getLast().path(), budget)
+                                    .delayUntil(report -> Mono.delay(throttle(files.size()))))
+                            .concatWith(Mono.defer(() -> reconcilePage(bucket, List.of(), after.get(), null, budget)))
+                            .reduce(ReconciliationReport.EMPTY, ReconciliationReport::plus)
+                            .onErrorResume(throwable -> {
+                                log.error("Storage reconciliation skipped bucket, it cannot be listed: bucket={}, rows={}",
+                                        bucket, rows, throwable);
+                                return Mono.just(ReconciliationReport.EMPTY);
+                            });
+                })
+                .doOnNext(report -> log.info("Storage reconciliation: bucket={}, files={}, orphan files={}, dangling resources={}",
+                        bucket, report.files(), report.orphanFiles(), report.danglingResources()));
+    }
+
+    private Mono<ReconciliationReport> reconcilePage(Bucket bucket, List<StoredFile> files, String after, String upTo,
+                                                     RepairBudget budget) {
+        Set<String> paths = new HashSet<>();
+        Map<String, StoredFile> unreferenced = new HashMap<>();
+        files.forEach(file -> {
+            paths.add(file.path());
+            unreferenced.put(file.path(), file);
+        });
+        budget.files += files.size();
+        meterRegistry.counter(FILES_METER, "bucket", tag(bucket)).increment(files.size());
+
+        return resourcePathRepository.findInRange(bucket, after, upTo)
+                .doOnNext(resource -> unreferenced.remove(resource.path()))
+                .filter(resource -> !paths.contains(resource.path()))
+                .buffer(pageSize)
+                .concatMap(resources -> handleDanglingResources(bucket, resources, budget))
+                .reduce(0L, Long::sum)
+                .flatMap(dangling -> handleOrphanFiles(bucket, unreferenced.values())
+                        .map(orphans -> new ReconciliationReport(files.size(), orphans, dangling)));
+    }
+
+    /**
+     * Rows whose file was not listed. The file is looked up once more, it may have been stored after the listing.
+     */
+    private Mono<Long> handleDanglingResources(Bucket bucket, List<ResourcePath> resources, RepairBudget budget) {
+        LocalDateTime createdBefore = LocalDateTime.now().minus(gracePeriod);
+
+        return Flux.fromIterable(resources)
+                .filter(resource -> resource.createdAt().isBefore(createdBefore))
+                .filterWhen(resource -> fileStorage.exists(StorageResource.builder()
+                                .bucket(bucket)
+                                .path(resource.path())
+                                .build())
+                        .map(exists -> !exists))
+                .doOnNext(resource -> log.warn("Dangling resource: UUID={}, bucket={}, path={}",
+                        resource.uuid(), bucket, resource.path()))
+                .map(ResourcePath::uuid)
+                .collectList()
+                .filter(uuids -> !uuids.isEmpty())
+                .flatMap(uuids -> {
+                    count(DANGLING_RESOURCES_METER, bucket, "found", uuids.size());
+                    return repair && budget.allows(bucket, uuids.size())
+                            ? storage.deleteResourcesByUUIDs(uuids)
+                                    .doOnNext(deleted -> count(DANGLING_RESOURCES_METER, bucket, "deleted", deleted.size()))
+                                    .thenReturn((long) uuids.size())
+                            : Mono.just((long) uuids.size());
+                })
+                .defaultIfEmpty(0L);
+    }
+
+    /**
+     * Files no row of the page range points to. They are checked against both the resources and
+     * the deduplicated blobs before anything is deleted.
+     */
+    private Mono<Long> handleOrphanFiles(Bucket bucket, Collection<StoredFile> files) {
+        Instant modifiedBefore = Instant.now().minus(gracePeriod);
+        List<String> candidates = files.stream()
+                .filter(file -> file.lastModified().isBefore(modifiedBefore))
+                .map(StoredFile::path)
+                .toList();
+        if (candidates.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        return resourcePathRepository.findReferencedPaths(bucket, candidates)
+                .collect(HashSet<String>::new, Set::add)
+                .map(referenced -> candidates.stream()
+                        .filter(path -> !referenced.contains(path))
+                        .peek(path -> log.warn("Orphan file: bucket={}, path={}", bucket, path))
+                        .map(path -> StorageResource.builder()
+                                .bucket(bucket)
+                                .path(path)
+                                .build())
+                        .toList())
+                .filter(orphans -> !orphans.isEmpty())
+                .flatMap(orphans -> {
+                    count(ORPHAN_FILES_METER, bucket, "found", orphans.size());
+                    return repair
+                            ? fileStorage.deleteFiles(orphans)
+                                    .count()
+                                    .doOnNext(deleted -> count(ORPHAN_FILES_METER, bucket, "deleted", deleted))
+                                    .thenReturn((long) orphans.size())
+                            : Mono.just((long) orphans.size());
+                })
+                .defaultIfEmpty(0L);
+    }
+
+    private Duration throttle(int files) {
+        return Duration.ofNanos(files * 1_000_000_000L / rate);
+    }
+
+    private void count(String meter, Bucket bucket, String action, long amount) {
+        meterRegistry.counter(meter, "bucket", tag(bucket), "action", action).increment(amount);
+    }
+
+    private String tag(Bucket bucket) {
+        return bucket.toString().toLowerCase();
+    }
+
+    /**
+     * Dangling resources of one bucket run, the pages of a bucket are handled one after another.
+     */
+    private class RepairBudget {
+        private final long rows;
+        private long files;
+        private long dangling;
+
+        RepairBudget(long rows) {
+            this.rows = rows;
+        }
+
+        boolean allows(Bucket bucket, int found) {
+            dangling += found;
+            if (files == 0) {
+                log.error("Dangling resources are not deleted, no file of the bucket was listed: bucket={}, rows={}",
+                        bucket, rows);
+                return false;
+            }
+            if (dangling > rows * maxDanglingRatio) {
+                log.error("Dangling resources are not deleted, {} of {} rows exceed storage.reconciliation.max-dangling-ratio: bucket={}",
+                        dangling, rows, bucket);
+                return false;
+            }
+            return true;
+        }
+    }
+}
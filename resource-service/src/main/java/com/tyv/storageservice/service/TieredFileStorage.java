@@ -0,0 +1,329 @@
+package com.tyv.storageservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.model.PresignedUrl;
+import com.tyv.storageservice.model.ResourceStream;
+import com.tyv.storageservice.model.StoredFile;
+import com.tyv.storageservice.model.UploadChunk;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.util.unit.DataSize;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Keeps hot files on a local disk ({@code local}) in front of the durable storage ({@code durable}).
+ * A saved file is written to both. A file read for the first time is served from the durable storage and copied
+ * to the local disk in the background, once, however many requests ask for it at the same time. The local disk
+ * is bounded by the total size of its files, evicted files are deleted. Files larger than {@code maxFileSize} are
+ * never kept on the local disk, their sizes are remembered so they are read from the durable storage without
+ * another lookup. Stored files never change under their path, so a local copy is never stale. Files reach the local
+ * disk only by an atomic move from the staging directory, so the files found there after a restart are complete
+ * and are indexed again, and the staging files left by interrupted copies are deleted.
+ * Any failure of the local disk falls back to the durable storage. Enabled with storage.tiered.enabled,
+ * see {@code TieredStorageConfiguration}.
+ */
+@Slf4j
+public class TieredFileStorage implements FileStorage {
+    private static final String CACHE_NAME = "storage.tier";
+    private static final String REQUESTS_METER = CACHE_NAME + ".requests";
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final int MAX_OVERSIZED_FILES = 100_000;
+
+    private final FileStorage durable;
+    private final FileStorageLocal local;
+    private final MeterRegistry meterRegistry;
+    private final long maxFileSize;
+    private final Cache<String, TierEntry> index;
+    private final Cache<String, Long> oversized;
+    private final Set<String> fills = ConcurrentHashMap.newKeySet();
+
+    private Disposable load;
+
+    /**
+     * Files are weighed in kilobytes, a Caffeine weight is an int.
+     */
+    public TieredFileStorage(FileStorage durable, FileStorageLocal local, MeterRegistry meterRegistry,
+                             DataSize capacity, DataSize maxFileSize) {
+        this.durable = durable;
+        this.local = local;
+        this.meterRegistry = meterRegistry;
+        this.maxFileSize = maxFileSize.toBytes();
+        this.index = Caffeine.newBuilder()
+                .maximumWeight(capacity.toKilobytes())
+                .weigher((String key, TierEntry entry) -> (int) Math.max(1, (entry.size() + 1023) / 1024))
+                .removalListener((String key, TierEntry entry, RemovalCause cause) -> {
+                    if (nonNull(entry) && cause.wasEvicted()) {
+                        local.deleteFile(entry.resource())
+                                .subscribe(null, throwable -> log.warn("Evicted file deletion failed: path={}",
+                                        entry.path(), throwable));
+                    }
+                })
+                .recordStats()
+                .build();
+
+        this.oversized = Caffeine.newBuilder()
+                .maximumSize(MAX_OVERSIZED_FILES)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, index, CACHE_NAME);
+    }
+
+    /**
+     * Deletes the staging files of the copies interrupted by the previous run, then indexes the files it left
+     * on the local disk, in the background. The staging directory is cleared before any request can start a copy.
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            log.info("Local tier staging cleared: files={}", local.clearStaging().block());
+        } catch (RuntimeException e) {
+            log.warn("Local tier staging clearing failed", e);
+        }
+
+        load = Flux.fromArray(Bucket.values())
+                .concatMap(bucket -> local.list(bucket, LOAD_PAGE_SIZE)
+                        .onErrorResume(NoSuchFileException.class, throwable -> Flux.empty())
+                        .concatMapIterable(files -> files)
+                        .map(file -> StorageResource.builder()
+                                .bucket(bucket)
+                                .path(file.path())
+                                .build()))
+                .flatMap(resource -> local.contentLength(resource)
+                        .doOnNext(size -> index.asMap().putIfAbsent(key(resource),
+                                new TierEntry(resource.getBucket(), resource.getPath(), size))), 4)
+                .count()
+                .subscribe(files -> log.info("Local tier loaded: files={}", files),
+                        throwable -> log.error("Local tier loading failed", throwable));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (nonNull(load)) {
+            load.dispose();
+        }
+    }
+
+    @Override
+    public Mono<StorageResource> getData(StorageResource resource) {
+        return read(resource, local::getData, durable::getData);
+    }
+
+    @Override
+    public Mono<ResourceStream> stream(StorageResource resource) {
+        return read(resource, local::stream, durable::stream);
+    }
+
+    @Override
+    public Mono<ResourceStream> stream(StorageResource resource, long position, long count) {
+        return read(resource,
+                cached -> local.stream(cached, position, count),
+                missed -> durable.stream(missed, position, count));
+    }
+
+    @Override
+    public Mono<Long> contentLength(StorageResource resource) {
+        TierEntry entry = index.getIfPresent(key(resource));
+        if (nonNull(entry)) {
+            return Mono.just(entry.size());
+        }
+
+        Long size = oversized.getIfPresent(key(resource));
+        return nonNull(size)
+                ? Mono.just(size)
+                : durable.contentLength(resource);
+    }
+
+    @Override
+    public Mono<Boolean> exists(StorageResource resource) {
+        return nonNull(index.getIfPresent(key(resource)))
+                ? Mono.just(true)
+                : durable.exists(resource);
+    }
+
+    /**
+     * The content is staged on the local disk and sent to the durable storage from there, the local copy
+     * becomes visible once the durable storage has the file. A request body can be read only once, so a failure
+     * of the local disk fails the save. The local copy of a file larger than {@code maxFileSize} is deleted
+     * once the durable storage has it.
+     */
+    @Override
+    public Mono<Void> save(StorageResource storageResource, Flux<DataBuffer> content) {
+        return local.startUpload(storageResource)
+                .flatMap(uploadId -> local.saveChunk(storageResource, uploadId, 1, 0, content)
+                        .then(local.completeUpload(storageResource, uploadId, List.of()))
+                        .onErrorResume(throwable -> local.abortUpload(storageResource, uploadId)
+                                .then(Mono.error(throwable))))
+                .then(local.stream(storageResource))
+                .flatMap(stream -> durable.save(storageResource, stream.content())
+                        .onErrorResume(throwable -> local.deleteFile(storageResource)
+                                .then(Mono.error(throwable)))
+                        .then(Mono.defer(() -> keep(storageResource, stream.contentLength()))));
+    }
+
+    private Mono<Void> keep(StorageResource resource, long size) {
+        if (size <= maxFileSize) {
+            index.put(key(resource), new TierEntry(resource.getBucket(), resource.getPath(), size));
+            return Mono.empty();
+        }
+
+        oversized.put(key(resource), size);
+        return local.deleteFile(resource)
+                .onErrorResume(throwable -> {
+                    log.warn("Local copy of a large file was not deleted: path={}", resource.getPath(), throwable);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * The local copy goes first, so a file deleted from the durable storage is never found locally after a restart.
+     */
+    @Override
+    public Mono<Boolean> deleteFile(StorageResource storageResource) {
+        index.invalidate(key(storageResource));
+        oversized.invalidate(key(storageResource));
+        return local.deleteFile(storageResource)
+                .then(durable.deleteFile(storageResource));
+    }
+
+    @Override
+    public Flux<StorageResource> deleteFiles(List<StorageResource> resources) {
+        resources.forEach(resource -> {
+            index.invalidate(key(resource));
+            oversized.invalidate(key(resource));
+        });
+        return local.deleteFiles(resources)
+                .thenMany(durable.deleteFiles(resources));
+    }
+
+    @Override
+    public Flux<List<StoredFile>> list(Bucket bucket, int pageSize) {
+        return durable.list(bucket, pageSize);
+    }
+
+    /**
+     * Chunked uploads go to the durable storage only, the file is copied to the local disk when it is first read.
+     */
+    @Override
+    public Mono<String> startUpload(StorageResource resource) {
+        return durable.startUpload(resource);
+    }
+
+    @Override
+    public Mono<String> saveChunk(StorageResource resource, String uploadId, int number, long offset,
+                                  Flux<DataBuffer> content) {
+        return durable.saveChunk(resource, uploadId, number, offset, content);
+    }
+
+    @Override
+    public Mono<Void> completeUpload(StorageResource resource, String uploadId, List<UploadChunk> chunks) {
+        return durable.completeUpload(resource, uploadId, chunks);
+    }
+
+    @Override
+    public Mono<Void> abortUpload(StorageResource resource, String uploadId) {
+        return durable.abortUpload(resource, uploadId);
+    }
+
+    @Override
+    public Mono<PresignedUrl> getDownloadUrl(StorageResource resource) {
+        return durable.getDownloadUrl(resource);
+    }
+
+    @Override
+    public Mono<PresignedUrl> getUploadUrl(StorageResource resource) {
+        return durable.getUploadUrl(resource);
+    }
+
+    /**
+     * A miss is served from the durable storage right away, a ranged read waits neither for the whole file
+     * nor for the local disk.
+     */
+    private <T> Mono<T> read(StorageResource resource, Function<StorageResource, Mono<T>> fromLocal,
+                             Function<StorageResource, Mono<T>> fromDurable) {
+        String key = key(resource);
+        boolean hit = nonNull(index.getIfPresent(key));
+        meterRegistry.counter(REQUESTS_METER,
+                        "bucket", resource.getBucket().toString().toLowerCase(),
+                        "result", hit ? "hit" : "miss")
+                .increment();
+
+        if (!hit) {
+            fill(resource);
+            return fromDurable.apply(resource);
+        }
+
+        return fromLocal.apply(resource)
+                .onErrorResume(throwable -> {
+                    log.warn("Local tier read failed: path={}", resource.getPath(), throwable);
+                    index.invalidate(key);
+                    return fromDurable.apply(resource);
+                });
+    }
+
+    /**
+     * Copies the file from the durable storage in the background unless it is larger than {@code maxFileSize}.
+     * Concurrent misses of the same file start one copy. A file found to be too large is remembered, its later
+     * reads go to the durable storage directly.
+     */
+    private void fill(StorageResource resource) {
+        String key = key(resource);
+        if (nonNull(oversized.getIfPresent(key)) || !fills.add(key)) {
+            return;
+        }
+
+        durable.contentLength(resource)
+                .flatMap(size -> {
+                    if (size > maxFileSize) {
+                        oversized.put(key, size);
+                        return Mono.<Void>empty();
+                    }
+                    return copy(resource)
+                            .then(Mono.fromRunnable(() -> index.put(key,
+                                    new TierEntry(resource.getBucket(), resource.getPath(), size))));
+                })
+                .doFinally(signal -> fills.remove(key))
+                .subscribe(null, throwable -> log.warn("Local tier fill failed: path={}", resource.getPath(),
+                        throwable));
+    }
+
+    private Mono<Void> copy(StorageResource resource) {
+        return local.startUpload(resource)
+                .flatMap(uploadId -> durable.stream(resource)
+                        .flatMap(stream -> local.saveChunk(resource, uploadId, 1, 0, stream.content()))
+                        .then(local.completeUpload(resource, uploadId, List.of()))
+                        .onErrorResume(throwable -> local.abortUpload(resource, uploadId)
+                                .then(Mono.error(throwable))));
+    }
+
+    private String key(StorageResource resource) {
+        return resource.getBucket() + "/" + resource.getPath();
+    }
+
+    private record TierEntry(Bucket bucket, String path, long size) {
+        StorageResource resource() {
+            return StorageResource.builder()
+                    .bucket(bucket)
+                    .path(path)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.tyv.storageservice.util;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.zip.CRC32C;
+
+/**
+ * Computes the CRC32C of the stored bytes while they pass through the stream, in the format of
+ * the S3 x-amz-checksum-crc32c header (Base64 of the big-endian value).
+ */
+public class ContentChecksum {
+    private final CRC32C crc32c = new CRC32C();
+
+    private ContentChecksum() {
+    }
+
+    public static ContentChecksum crc32c() {
+        return new ContentChecksum();
+    }
+
+    public Flux<DataBuffer> checksum(Flux<DataBuffer> content) {
+        return content.doOnNext(this::update);
+    }
+
+    public String getValue() {
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(Integer.BYTES)
+                .putInt((int) crc32c.getValue())
+                .array());
+    }
+
+    public static String of(byte[] data) {
+        ContentChecksum checksum = new ContentChecksum();
+        checksum.crc32c.update(data);
+        return checksum.getValue();
+    }
+
+    private void update(DataBuffer dataBuffer) {
+        try (DataBuffer.ByteBufferIterator iterator = dataBuffer.readableByteBuffers()) {
+            iterator.forEachRemaining(crc32c::update);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.tyv.storageservice.util;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes a digest and the size of the content while it passes through the upload stream,
+ * so the data does not have to be read a second time.
+ */
+public class ContentDigest {
+    private final MessageDigest digest;
+    private long size;
+    private String hash;
+
+    private ContentDigest(MessageDigest digest) {
+        this.digest = digest;
+    }
+
+    public static ContentDigest sha256() {
+        try {
+            return new ContentDigest(MessageDigest.getInstance("SHA-256"));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Flux<DataBuffer> digest(Flux<DataBuffer> content) {
+        return content.doOnNext(this::update);
+    }
+
+    public String getHash() {
+        if (hash == null) {
+            hash = HexFormat.of().formatHex(digest.digest());
+        }
+        return hash;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    private void update(DataBuffer dataBuffer) {
+        try (DataBuffer.ByteBufferIterator iterator = dataBuffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                ByteBuffer byteBuffer = iterator.next();
+                size += byteBuffer.remaining();
+                digest.update(byteBuffer);
+            }
+        }
+    }
+}
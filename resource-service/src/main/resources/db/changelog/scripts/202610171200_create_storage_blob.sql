@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS storage_blob
+(
+    id         BIGSERIAL,
+    created_at TIMESTAMP NOT NULL,
+    bucket     VARCHAR   NOT NULL,
+    hash       VARCHAR   NOT NULL,
+    path       VARCHAR   NOT NULL,
+    size       BIGINT    NOT NULL,
+    ref_count  BIGINT    NOT NULL,
+    CONSTRAINT storage_blob_primary_key_id PRIMARY KEY (id),
+    CONSTRAINT unique_bucket_hash UNIQUE (bucket, hash)
+);
+
+ALTER TABLE storage_resource ADD COLUMN IF NOT EXISTS blob_hash VARCHAR;
+ALTER TABLE storage_resource DROP CONSTRAINT IF EXISTS unique_path;
@@ -0,0 +1,4 @@
+ALTER TABLE storage_resource ADD CONSTRAINT unique_path UNIQUE (path);
+ALTER TABLE storage_resource DROP COLUMN IF EXISTS blob_hash;
+
+DROP TABLE IF EXISTS storage_blob;
@@ -0,0 +1 @@
+ALTER TABLE storage_resource DROP COLUMN IF EXISTS content_hash;
@@ -0,0 +1 @@
+ALTER TABLE storage_resource ADD COLUMN IF NOT EXISTS content_coding VARCHAR NOT NULL DEFAULT 'IDENTITY';
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS storage_resource_bucket_path ON storage_resource (bucket, path COLLATE "C");
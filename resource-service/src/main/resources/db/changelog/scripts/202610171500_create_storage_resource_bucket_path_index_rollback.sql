@@ -0,0 +1 @@
+DROP INDEX IF EXISTS storage_resource_bucket_path;
@@ -0,0 +1,31 @@
+CREATE TABLE IF NOT EXISTS storage_upload_session
+(
+    id           BIGSERIAL,
+    created_at   TIMESTAMP NOT NULL,
+    expires_at   TIMESTAMP NOT NULL,
+    uuid         UUID      NOT NULL,
+    category     VARCHAR   NOT NULL,
+    bucket       VARCHAR   NOT NULL,
+    content_type VARCHAR,
+    title        VARCHAR,
+    path         VARCHAR   NOT NULL,
+    size         BIGINT    NOT NULL,
+    chunk_size   BIGINT    NOT NULL,
+    upload_id    VARCHAR   NOT NULL,
+    CONSTRAINT storage_upload_session_primary_key_id PRIMARY KEY (id),
+    CONSTRAINT storage_upload_session_unique_uuid UNIQUE (uuid)
+);
+
+CREATE INDEX IF NOT EXISTS storage_upload_session_expires_at ON storage_upload_session (expires_at);
+
+CREATE TABLE IF NOT EXISTS storage_upload_chunk
+(
+    session_id BIGINT  NOT NULL,
+    number     INT     NOT NULL,
+    size       BIGINT  NOT NULL,
+    checksum   VARCHAR NOT NULL,
+    tag        VARCHAR,
+    CONSTRAINT storage_upload_chunk_primary_key PRIMARY KEY (session_id, number),
+    CONSTRAINT storage_upload_chunk_session FOREIGN KEY (session_id)
+        REFERENCES storage_upload_session (id) ON DELETE CASCADE
+);
@@ -0,0 +1,2 @@
+DROP TABLE IF EXISTS storage_upload_chunk;
+DROP TABLE IF EXISTS storage_upload_session;
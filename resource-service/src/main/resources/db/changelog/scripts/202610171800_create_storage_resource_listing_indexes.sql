@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS storage_resource_bucket_created_at_id ON storage_resource (bucket, created_at, id);
+CREATE INDEX IF NOT EXISTS storage_resource_bucket_category_created_at_id ON storage_resource (bucket, category, created_at, id);
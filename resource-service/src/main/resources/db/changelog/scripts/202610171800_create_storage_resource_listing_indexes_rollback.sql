@@ -0,0 +1,2 @@
+DROP INDEX IF EXISTS storage_resource_bucket_category_created_at_id;
+DROP INDEX IF EXISTS storage_resource_bucket_created_at_id;
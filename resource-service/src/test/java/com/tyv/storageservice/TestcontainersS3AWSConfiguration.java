@@ -1,5 +1,6 @@
 package com.tyv.storageservice;
 
+import com.tyv.storageservice.config.S3AsyncClientFactory;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.testcontainers.utility.DockerImageName;
@@ -8,6 +9,8 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 @TestConfiguration
 public class TestcontainersS3AWSConfiguration {
@@ -22,10 +25,23 @@ public class TestcontainersS3AWSConfiguration {
     }
 
     @Bean
-    public S3AsyncClient s3AsyncClient(LocalStackContainer awsContainer) {
-        return S3AsyncClient.builder()
+    public S3AsyncClient s3AsyncClient(LocalStackContainer awsContainer, S3AsyncClientFactory s3AsyncClientFactory) {
+        return s3AsyncClientFactory.create(Region.of(awsContainer.getRegion()),
+                StaticCredentialsProvider.create(AwsBasicCredentials.builder()
+                                .accessKeyId(awsContainer.getAccessKey())
+                                .secretAccessKey(awsContainer.getSecretKey())
+                        .build()),
+                awsContainer.getEndpointOverride(LocalStackContainer.Service.S3));
+    }
+
+    @Bean
+    public S3Presigner s3Presigner(LocalStackContainer awsContainer) {
+        return S3Presigner.builder()
                 .endpointOverride(awsContainer.getEndpointOverride(LocalStackContainer.Service.S3))
                 .region(Region.of(awsContainer.getRegion()))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(true)
+                        .build())
                 .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.builder()
                                 .accessKeyId(awsContainer.getAccessKey())
                                 .secretAccessKey(awsContainer.getSecretKey())
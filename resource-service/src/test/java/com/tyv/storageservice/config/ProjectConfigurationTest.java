@@ -0,0 +1,36 @@
+package com.tyv.storageservice.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+class ProjectConfigurationTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withBean("r2dbcMappingContext", R2dbcMappingContext.class)
+            .withBean(ProjectConfiguration.class);
+
+    @Test
+    @DisplayName("С storage.blocking-scheduler=VIRTUAL_THREADS блокирующие вызовы выполняются в виртуальных потоках")
+    void whenBlockingSchedulerIsVirtualThreads_thenWorkersAreVirtual() {
+        contextRunner.withPropertyValues("storage.blocking-scheduler=VIRTUAL_THREADS")
+                .run(context -> Assertions.assertThat(isVirtual(context.getBean("blockingScheduler", Scheduler.class)))
+                        .isTrue());
+    }
+
+    @Test
+    @DisplayName("По умолчанию блокирующие вызовы выполняются в платформенных потоках boundedElastic")
+    void whenBlockingSchedulerIsDefault_thenWorkersArePlatformThreads() {
+        contextRunner.run(context -> Assertions.assertThat(isVirtual(context.getBean("blockingScheduler", Scheduler.class)))
+                .isFalse());
+    }
+
+    private boolean isVirtual(Scheduler scheduler) {
+        return Mono.fromCallable(() -> Thread.currentThread().isVirtual())
+                .subscribeOn(scheduler)
+                .block();
+    }
+}
@@ -0,0 +1,40 @@
+package com.tyv.storageservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollector;
+
+import java.time.Duration;
+
+class S3ClientMetricPublisherTest {
+
+    @Test
+    @DisplayName("Состояние пула соединений и длительность вызова попадают в метрики")
+    void whenApiCallIsPublished_thenPoolGaugesAndTimerAreUpdated() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        S3ClientMetricPublisher publisher = new S3ClientMetricPublisher(meterRegistry);
+
+        MetricCollector apiCall = MetricCollector.create("ApiCall");
+        apiCall.reportMetric(CoreMetric.OPERATION_NAME, "GetObject");
+        apiCall.reportMetric(CoreMetric.API_CALL_SUCCESSFUL, true);
+        apiCall.reportMetric(CoreMetric.API_CALL_DURATION, Duration.ofMillis(40));
+        MetricCollector httpClient = apiCall.createChild("ApiCallAttempt").createChild("HttpClient");
+        httpClient.reportMetric(HttpMetric.MAX_CONCURRENCY, 100);
+        httpClient.reportMetric(HttpMetric.LEASED_CONCURRENCY, 7);
+        httpClient.reportMetric(HttpMetric.PENDING_CONCURRENCY_ACQUIRES, 2);
+
+        publisher.publish(apiCall.collect());
+
+        Assertions.assertThat(meterRegistry.get("storage.aws.client.pool")
+                .tag("state", HttpMetric.LEASED_CONCURRENCY.name()).gauge().value()).isEqualTo(7);
+        Assertions.assertThat(meterRegistry.get("storage.aws.client.pool")
+                .tag("state", HttpMetric.PENDING_CONCURRENCY_ACQUIRES.name()).gauge().value()).isEqualTo(2);
+        Assertions.assertThat(meterRegistry.get("storage.aws.client.calls")
+                .tag("operation", "GetObject").tag("result", "success").timer().count()).isEqualTo(1);
+    }
+}
@@ -4,28 +4,53 @@ import com.tyv.storageservice.dto.ResponseExceptionDto;
 import com.tyv.storageservice.entity.StorageResource;
 import com.tyv.storageservice.enums.Bucket;
 import com.tyv.storageservice.enums.Category;
+import com.tyv.storageservice.enums.ContentCoding;
+import com.tyv.storageservice.exception.ResourceBatchTooLargeException;
+import com.tyv.storageservice.exception.ResourceListingException;
 import com.tyv.storageservice.exception.ResourceNotFoundException;
+import com.tyv.storageservice.exception.ResourceUploadNotSupportedException;
+import com.tyv.storageservice.exception.ResourceUploadSessionException;
+import com.tyv.storageservice.model.BatchUploadResult;
+import com.tyv.storageservice.model.PresignedUpload;
+import com.tyv.storageservice.model.PresignedUrl;
+import com.tyv.storageservice.model.ResourceFilter;
+import com.tyv.storageservice.model.ResourcePage;
+import com.tyv.storageservice.model.ResourceStream;
+import com.tyv.storageservice.model.ResourceSummary;
+import com.tyv.storageservice.model.UploadSessionStatus;
+import com.tyv.storageservice.service.ResumableUploadService;
 import com.tyv.storageservice.service.Storage;
 import com.tyv.storageservice.util.FileConstants;
 import org.apache.http.entity.ContentType;
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
@@ -33,7 +58,10 @@ import java.util.UUID;
 import static com.tyv.storageservice.util.LocalStorageResourceUtil.createFilePart;
 
 @WebFluxTest(controllers = ResourceController.class)
+@Import(ResourceResponseWriter.class)
 class ResourceControllerTest {
+    private static final String CONTENT_HASH = "5f0b9a9e0c2b7b6d1f3e8a4c2d6e9b1a0f7c3d5e8b2a4c6d9e1f3a5b7c9d0e2f";
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2026, 10, 17, 12, 30, 15);
 
     @Autowired
     WebTestClient webTestClient;
@@ -41,6 +69,16 @@ class ResourceControllerTest {
     @MockitoBean
     private Storage storage;
 
+    @MockitoBean
+    private ResumableUploadService resumableUploadService;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.doReturn(Mono.empty())
+                .when(storage)
+                .getDownloadUrl(Mockito.any());
+    }
+
     @Test
     @DisplayName("Возвращать данные и статус 200, если ресурс найден")
     void whenGetResourceByUUIDAndResourceFound_thenReturnResourceData() {
@@ -51,12 +89,18 @@ class ResourceControllerTest {
         StorageResource resource = StorageResource.builder()
                 .contentType(contentType)
                 .title(filename)
-                .data(data.getBytes())
+                .contentHash(CONTENT_HASH)
+                .updateAt(UPDATED_AT)
                 .build();
+        ResourceStream stream = new ResourceStream(resource, data.getBytes().length,
+                Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(data.getBytes())));
 
         Mockito.doReturn(Mono.just(resource))
                 .when(storage)
-                .getFileDataByUUID(Mockito.any());
+                .getResourceByUUID(Mockito.any());
+        Mockito.doReturn(Mono.just(stream))
+                .when(storage)
+                .getFileStream(resource);
 
         webTestClient.get()
                 .uri(uriBuilder -> uriBuilder.path("/api/resource/{uuid}")
@@ -66,11 +110,325 @@ class ResourceControllerTest {
                 .expectHeader().contentDisposition(ContentDisposition.attachment().filename(filename).build())
                 .expectHeader().contentType(contentType)
                 .expectHeader().contentLength(data.getBytes().length)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + CONTENT_HASH + "\"")
+                .expectHeader().lastModified(UPDATED_AT.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable")
                 .expectBody(String.class)
                 .isEqualTo(data);
 
+        Mockito.verify(storage)
+                .getResourceByUUID(Mockito.argThat(mono -> Objects.equals(mono.block(), requestUUID)));
+        Mockito.verify(storage).getFileStream(resource);
+    }
+
+    @Test
+    @DisplayName("Возвращать статус 304 без чтения файла, если ETag совпадает с If-None-Match")
+    void whenGetResourceByUUIDWithMatchingETag_thenReturnNotModified() {
+        String requestUUID = "e45331f2-5941-4b35-baa0-20e01f016f1e";
+        StorageResource resource = StorageResource.builder()
+                .contentType("text/plain")
+                .title("test_file.txt")
+                .contentHash(CONTENT_HASH)
+                .updateAt(UPDATED_AT)
+                .build();
+
+        Mockito.doReturn(Mono.just(resource))
+                .when(storage)
+                .getResourceByUUID(Mockito.any());
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/{uuid}")
+                        .build(requestUUID))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + CONTENT_HASH + "\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + CONTENT_HASH + "\"")
+                .expectBody().isEmpty();
+
         Mockito.verify(storage, Mockito.only())
-                .getFileDataByUUID(Mockito.argThat(mono -> Objects.equals(mono.block(), requestUUID)));
+                .getResourceByUUID(Mockito.argThat(mono -> Objects.equals(mono.block(), requestUUID)));
+    }
+
+    @Test
+    @DisplayName("Возвращать часть данных и статус 206, если запрошен один диапазон")
+    void whenGetResourceByUUIDWithRange_thenReturnPartialContent() {
+        String requestUUID = "e45331f2-5941-4b35-baa0-20e01f016f1e";
+        String data = "Test data response";
+        StorageResource resource = StorageResource.builder()
+                .contentType("text/plain")
+                .title("test_file.txt")
+                .build();
+
+        Mockito.doReturn(Mono.just(resource))
+                .when(storage)
+                .getResourceByUUID(Mockito.any());
+        Mockito.doReturn(Mono.just((long) data.length()))
+                .when(storage)
+                .getContentLength(resource);
+        Mockito.doReturn(Mono.just(new ResourceStream(resource, 5, 4,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("data".getBytes())), null)))
+                .when(storage)
+                .getFileStream(resource, 5, 4);
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/{uuid}")
+                        .build(requestUUID))
+                .header(HttpHeaders.RANGE, "bytes=5-8")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PARTIAL_CONTENT)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 5-8/" + data.length())
+                .expectHeader().contentLength(4)
+                .expectBody(String.class)
+                .isEqualTo("data");
+    }
+
+    @Test
+    @DisplayName("Возвращать multipart/byteranges и статус 206, если запрошено несколько диапазонов")
+    void whenGetResourceByUUIDWithSeveralRanges_thenReturnMultipartByteRanges() {
+        String requestUUID = "e45331f2-5941-4b35-baa0-20e01f016f1e";
+        String data = "Test data response";
+        StorageResource resource = StorageResource.builder()
+                .contentType("text/plain")
+                .title("test_file.txt")
+                .build();
+
+        Mockito.doReturn(Mono.just(resource))
+                .when(storage)
+                .getResourceByUUID(Mockito.any());
+        Mockito.doReturn(Mono.just((long) data.length()))
+                .when(storage)
+                .getContentLength(resource);
+        Mockito.doReturn(Mono.just(new ResourceStream(resource, 0, 4,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("Test".getBytes())), null)))
+                .when(storage)
+                .getFileStream(resource, 0, 4);
+        Mockito.doReturn(Mono.just(new ResourceStream(resource, 10, 8,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("response".getBytes())), null)))
+                .when(storage)
+                .getFileStream(resource, 10, 8);
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/{uuid}")
+                        .build(requestUUID))
+                .header(HttpHeaders.RANGE, "bytes=0-3,-8")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PARTIAL_CONTENT)
+                .expectHeader().value(HttpHeaders.CONTENT_TYPE,
+                        contentType -> Assertions.assertThat(contentType).startsWith("multipart/byteranges;boundary="))
+                .expectBody(String.class)
+                .value(body -> Assertions.assertThat(body)
+                        .contains("Content-Range: bytes 0-3/" + data.length() + "\r\n\r\nTest")
+                        .contains("Content-Range: bytes 10-17/" + data.length() + "\r\n\r\nresponse"));
+    }
+
+    @Test
+    @DisplayName("Возвращать статус 416, если диапазон выходит за пределы ресурса")
+    void whenGetResourceByUUIDWithUnsatisfiableRange_thenReturnRangeNotSatisfiable() {
+        String requestUUID = "e45331f2-5941-4b35-baa0-20e01f016f1e";
+        StorageResource resource = StorageResource.builder()
+                .contentType("text/plain")
+                .title("test_file.txt")
+                .contentHash(CONTENT_HASH)
+                .updateAt(UPDATED_AT)
+                .build();
+
+        Mockito.doReturn(Mono.just(resource))
+                .when(storage)
+                .getResourceByUUID(Mockito.any());
+        Mockito.doReturn(Mono.just(10L))
+                .when(storage)
+                .getContentLength(resource);
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/{uuid}")
+                        .build(requestUUID))
+                .header(HttpHeaders.RANGE, "bytes=20-30")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes */10")
+                .expectHeader().doesNotExist(HttpHeaders.CACHE_CONTROL)
+                .expectHeader().doesNotExist(HttpHeaders.ETAG)
+                .expectHeader().doesNotExist(HttpHeaders.LAST_MODIFIED);
+
+        Mockito.verify(storage, Mockito.never())
+                .getFileStream(Mockito.any(), Mockito.anyLong(), Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Сжатый ресурс отдаётся как хранится, если клиент принимает gzip")
+    void whenGetCompressedResourceAndGzipAccepted_thenReturnStoredBytes() {
+        String requestUUID = "e45331f2-5941-4b35-baa0-20e01f016f1e";
+        byte[] stored = {31, -117, 8, 0};
+        StorageResource resource = StorageResource.builder()
+                .contentType("text/plain")
+                .title("test_file.txt")
+                .contentHash(CONTENT_HASH)
+                .contentCoding(ContentCoding.GZIP)
+                .build();
+
+        Mockito.doReturn(Mono.just(resource))
+                .when(storage)
+                .getResourceByUUID(Mockito.any());
+        Mockito.doReturn(Mono.just(new ResourceStream(resource, stored.length,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(stored.clone())))))
+                .when(storage)
+                .getFileStream(resource);
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/{uuid}")
+                        .build(requestUUID))
+                .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + CONTENT_HASH + "-gzip\"")
+                .expectHeader().valueEquals(HttpHeaders.ACCEPT_RANGES, "none")
+                .expectHeader().contentLength(stored.length)
+                .expectBody(byte[].class)
+                .isEqualTo(stored);
+
+        Mockito.verify(storage, Mockito.never()).getDecodedFileStream(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Сжатый ресурс распаковывается на лету, если клиент не принимает gzip")
+    void whenGetCompressedResourceAndGzipNotAccepted_thenReturnDecodedContent() {
+        String requestUUID = "e45331f2-5941-4b35-baa0-20e01f016f1e";
+        String data = "Test data response";
+        StorageResource resource = StorageResource.builder()
+                .contentType("text/plain")
+                .title("test_file.txt")
+                .contentHash(CONTENT_HASH)
+                .contentCoding(ContentCoding.GZIP)
+                .build();
+
+        Mockito.doReturn(Mono.just(resource))
+                .when(storage)
+                .getResourceByUUID(Mockito.any());
+        Mockito.doReturn(Mono.just(new ResourceStream(resource, -1,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(data.getBytes())))))
+                .when(storage)
+                .getDecodedFileStream(resource);
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/{uuid}")
+                        .build(requestUUID))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity")
+                .header(HttpHeaders.RANGE, "bytes=0-3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + CONTENT_HASH + "\"")
+                .expectBody(String.class)
+                .isEqualTo(data);
+
+        Mockito.verify(storage, Mockito.never()).getDownloadUrl(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Возвращать несколько ресурсов одним ответом multipart/mixed в порядке запроса")
+    void whenGetResourcesByUUIDs_thenReturnMultipartMixed() {
+        UUID firstUUID = UUID.fromString("e45331f2-5941-4b35-baa0-20e01f016f1e");
+        UUID secondUUID = UUID.fromString("9550a615-edd0-44b0-a2ca-507d6d6f5aeb");
+        StorageResource first = StorageResource.builder()
+                .uuid(firstUUID)
+                .contentType("text/plain")
+                .title("first.txt")
+                .build();
+        StorageResource second = StorageResource.builder()
+                .uuid(secondUUID)
+                .contentType("text/plain")
+                .title("second.txt")
+                .build();
+
+        Mockito.doReturn(Flux.just(first, second))
+                .when(storage)
+                .getResourcesByUUIDs(List.of(firstUUID, secondUUID));
+        Mockito.doReturn(Mono.just(new ResourceStream(first, 5,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("first".getBytes())))))
+                .when(storage)
+                .getDecodedFileStream(first);
+        Mockito.doReturn(Mono.just(new ResourceStream(second, 6,
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("second".getBytes())))))
+                .when(storage)
+                .getDecodedFileStream(second);
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/batch")
+                        .queryParam("uuid", firstUUID, secondUUID)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.CONTENT_TYPE,
+                        contentType -> Assertions.assertThat(contentType).startsWith("multipart/mixed;boundary="))
+                .expectBody(String.class)
+                .value(body -> Assertions.assertThat(body)
+                        .containsSubsequence(
+                                "Content-ID: <" + firstUUID + ">\r\n\r\nfirst",
+                                "Content-ID: <" + secondUUID + ">\r\n\r\nsecond"));
+    }
+
+    @Test
+    @DisplayName("Возвращать статус 404, если ни один ресурс из списка не найден")
+    void whenGetResourcesByUUIDsAndNothingFound_thenReturnNotFound() {
+        Mockito.doReturn(Flux.empty())
+                .when(storage)
+                .getResourcesByUUIDs(Mockito.any());
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/batch")
+                        .queryParam("uuid", "e45331f2-5941-4b35-baa0-20e01f016f1e")
+                        .build())
+                .accept(MediaType.MULTIPART_MIXED, MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Возвращать статус 400, если запрошено слишком много ресурсов")
+    void whenGetTooManyResourcesByUUIDs_thenReturnBadRequest() {
+        Mockito.doReturn(Flux.error(new ResourceBatchTooLargeException("Too many resources requested")))
+                .when(storage)
+                .getResourcesByUUIDs(Mockito.any());
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/batch")
+                        .queryParam("uuid", "e45331f2-5941-4b35-baa0-20e01f016f1e")
+                        .build())
+                .accept(MediaType.MULTIPART_MIXED, MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ResponseExceptionDto.class)
+                .value(dto -> Assertions.assertThat(dto.getErrorMessage()).isEqualTo("Too many resources requested"));
+    }
+
+    @Test
+    @DisplayName("Возвращать статус 404 без заголовков кэширования, если файл ресурса отсутствует в хранилище")
+    void whenGetResourceByUUIDAndFileIsMissing_thenReturnNotFoundWithoutCacheHeaders() {
+        String requestUUID = "e45331f2-5941-4b35-baa0-20e01f016f1e";
+        StorageResource resource = StorageResource.builder()
+                .contentType("text/plain")
+                .title("test_file.txt")
+                .contentHash(CONTENT_HASH)
+                .updateAt(UPDATED_AT)
+                .build();
+
+        Mockito.doReturn(Mono.just(resource))
+                .when(storage)
+                .getResourceByUUID(Mockito.any());
+        Mockito.doReturn(Mono.error(new ResourceNotFoundException("File [" + requestUUID + "] not found")))
+                .when(storage)
+                .getFileStream(resource);
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/{uuid}")
+                        .build(requestUUID))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().doesNotExist(HttpHeaders.CACHE_CONTROL)
+                .expectHeader().doesNotExist(HttpHeaders.ETAG)
+                .expectHeader().doesNotExist(HttpHeaders.LAST_MODIFIED);
     }
 
     @Test
@@ -80,7 +438,7 @@ class ResourceControllerTest {
 
         Mockito.doReturn(Mono.error(new ResourceNotFoundException("Resource by uuid [" + requestUUID + "] not found")))
                 .when(storage)
-                .getFileDataByUUID(Mockito.any());
+                .getResourceByUUID(Mockito.any());
 
         webTestClient.get()
                 .uri(uriBuilder -> uriBuilder.path("/api/resource/{uuid}")
@@ -101,7 +459,83 @@ class ResourceControllerTest {
                         });
 
         Mockito.verify(storage, Mockito.only())
-                .getFileDataByUUID(Mockito.argThat(mono -> Objects.equals(mono.block(), requestUUID)));
+                .getResourceByUUID(Mockito.argThat(mono -> Objects.equals(mono.block(), requestUUID)));
+    }
+
+    @Test
+    @DisplayName("Перенаправлять на временную ссылку хранилища, если она выдаётся")
+    void whenDownloadUrlIsAvailable_thenRedirect() {
+        String requestUUID = "e45331f2-5941-4b35-baa0-20e01f016f1e";
+        URI downloadUrl = URI.create("https://storage.example.com/product/frog.png?X-Amz-Signature=abc");
+        StorageResource resource = StorageResource.builder()
+                .contentType("image/png")
+                .title("frog.png")
+                .build();
+
+        Mockito.doReturn(Mono.just(resource))
+                .when(storage)
+                .getResourceByUUID(Mockito.any());
+        Mockito.doReturn(Mono.just(new PresignedUrl(downloadUrl, Instant.now().plusSeconds(300))))
+                .when(storage)
+                .getDownloadUrl(resource);
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/{uuid}")
+                        .build(requestUUID))
+                .exchange()
+                .expectStatus().isFound()
+                .expectHeader().location(downloadUrl.toString())
+                .expectHeader().cacheControl(CacheControl.noStore())
+                .expectBody().isEmpty();
+
+        Mockito.verify(storage, Mockito.never()).getFileStream(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Возвращать статус 201, UUID и ссылку для загрузки файла напрямую в хранилище")
+    void whenCreateResourceUploadUrl_thenReturnPresignedUpload() {
+        PresignedUpload upload = new PresignedUpload(UUID.randomUUID(),
+                URI.create("https://storage.example.com/product/frog.png?X-Amz-Signature=abc"),
+                MediaType.IMAGE_PNG_VALUE,
+                Instant.parse("2026-10-17T12:35:00Z"));
+
+        Mockito.doReturn(Mono.just(upload))
+                .when(storage)
+                .createResourceUploadUrl(Mockito.any(), Mockito.eq("frog.png"), Mockito.eq(MediaType.IMAGE_PNG_VALUE));
+
+        webTestClient.post()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/upload-url")
+                        .queryParam("category", Category.IMAGE)
+                        .queryParam("bucket", Bucket.PRODUCT)
+                        .queryParam("filename", "frog.png")
+                        .queryParam("contentType", MediaType.IMAGE_PNG_VALUE)
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(PresignedUpload.class)
+                .isEqualTo(upload);
+    }
+
+    @Test
+    @DisplayName("Возвращать статус 501, если хранилище не поддерживает загрузку по ссылке")
+    void whenUploadUrlIsNotSupported_thenReturnNotImplemented() {
+        Mockito.doReturn(Mono.error(new ResourceUploadNotSupportedException("Direct upload is not supported by the storage")))
+                .when(storage)
+                .createResourceUploadUrl(Mockito.any(), Mockito.any(), Mockito.any());
+
+        webTestClient.post()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/upload-url")
+                        .queryParam("category", Category.IMAGE)
+                        .queryParam("bucket", Bucket.PRODUCT)
+                        .queryParam("filename", "frog.png")
+                        .queryParam("contentType", MediaType.IMAGE_PNG_VALUE)
+                        .build())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NOT_IMPLEMENTED)
+                .expectBody(ResponseExceptionDto.class)
+                .value(body -> Assertions.assertThat(body.getErrorMessage())
+                        .isEqualTo("Direct upload is not supported by the storage"));
     }
 
     @Test
@@ -163,6 +597,37 @@ class ResourceControllerTest {
                         .containsExactlyInAnyOrderElementsOf(responseUUIDList));
     }
 
+    @Test
+    @DisplayName("Пакетная загрузка возвращает результат по каждому файлу в формате NDJSON")
+    void whenCreateResourcesInBatch_thenReturnResultPerFile() throws IOException, URISyntaxException {
+        FilePart filePartFirst = createFilePart(ContentType.IMAGE_PNG, FileConstants.FROG);
+        FilePart filePartSecond = createFilePart(ContentType.IMAGE_PNG, FileConstants.SNAKE);
+        BatchUploadResult created = BatchUploadResult.created(FileConstants.FROG.getSourceName(), UUID.randomUUID());
+        BatchUploadResult failed = BatchUploadResult.failed(FileConstants.SNAKE.getSourceName(), "Resource creation error");
+
+        Mockito.doReturn(Flux.just(created, failed))
+                .when(storage)
+                .createResources(Mockito.any(), Mockito.any());
+
+        MultipartBodyBuilder multipartData = new MultipartBodyBuilder();
+        multipartData.part("file", filePartFirst).contentType(MediaType.MULTIPART_FORM_DATA);
+        multipartData.part("file", filePartSecond).contentType(MediaType.MULTIPART_FORM_DATA);
+
+        webTestClient.post()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/uploadBatch")
+                        .queryParam("category", Category.IMAGE)
+                        .queryParam("bucket", Bucket.PRODUCT)
+                        .build())
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(multipartData.build()))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(BatchUploadResult.class)
+                .isEqualTo(List.of(created, failed));
+    }
+
     @Test
     @DisplayName("Успешное удаление ресурса, возвращается статус 204")
     void whenDeletingResourceIsSuccessful_thenReturnNoContentStatus() {
@@ -183,6 +648,27 @@ class ResourceControllerTest {
                 .deleteResourceByUUID(Mockito.argThat(mono -> Objects.equals(mono.block(), requestUUID)));
     }
 
+    @Test
+    @DisplayName("Пакетное удаление ресурсов, возвращается список удалённых UUID")
+    void whenDeletingResourcesInBatch_thenReturnDeletedUUIDs() {
+        UUID deletedUUID = UUID.fromString("e45331f2-5941-4b35-baa0-20e01f016f1e");
+        UUID absentUUID = UUID.fromString("9550a615-edd0-44b0-a2ca-507d6d6f5aeb");
+
+        Mockito.doReturn(Mono.just(List.of(deletedUUID)))
+                .when(storage)
+                .deleteResourcesByUUIDs(List.of(deletedUUID, absentUUID));
+
+        webTestClient.delete()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/batch")
+                        .queryParam("uuid", deletedUUID, absentUUID)
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UUID.class)
+                .isEqualTo(List.of(deletedUUID));
+    }
+
     @Test
     @DisplayName("Ресурс отсутствует, возвращается статус 204")
     void whenDeletingResourceIsNotFound_thenReturnNoContentStatus() {
@@ -202,4 +688,92 @@ class ResourceControllerTest {
         Mockito.verify(storage, Mockito.only())
                 .deleteResourceByUUID(Mockito.argThat(mono -> Objects.equals(mono.block(), requestUUID)));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Часть загружается в сессию, возвращается состояние с полученными частями")
+    void whenUploadingChunk_thenReturnSessionStatus() {
+        UUID uuid = UUID.fromString("9550a615-edd0-44b0-a2ca-507d6d6f5aeb");
+        String digest = "sha-256=:47DEQpj8HBSa+/TImW+5JCeuQeRkm5NMpJWZG3hSuFU=:";
+        UploadSessionStatus status = new UploadSessionStatus(uuid, 20L, 8L, 3, List.of(1, 2), 16L,
+                UPDATED_AT.plusDays(1));
+
+        Mockito.doReturn(Mono.just(status))
+                .when(resumableUploadService)
+                .saveChunk(Mockito.eq(uuid), Mockito.eq(2), Mockito.eq(digest), Mockito.any());
+
+        webTestClient.put()
+                .uri("/api/resource/upload-session/{uuid}/chunk/{number}", uuid, 2)
+                .header("Content-Digest", digest)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .bodyValue(new byte[8])
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UploadSessionStatus.class)
+                .isEqualTo(status);
+    }
+
+    @Test
+    @DisplayName("Часть не совпадает с Content-Digest, возвращается статус 400")
+    void whenChunkDoesNotMatchDigest_thenReturnBadRequestStatus() {
+        UUID uuid = UUID.fromString("9550a615-edd0-44b0-a2ca-507d6d6f5aeb");
+
+        Mockito.doReturn(Mono.error(new ResourceUploadSessionException("Chunk 1 does not match its Content-Digest")))
+                .when(resumableUploadService)
+                .saveChunk(Mockito.eq(uuid), Mockito.eq(1), Mockito.any(), Mockito.any());
+
+        webTestClient.put()
+                .uri("/api/resource/upload-session/{uuid}/chunk/{number}", uuid, 1)
+                .header("Content-Digest", "sha-256=:AAAA:")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .bodyValue(new byte[8])
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ResponseExceptionDto.class)
+                .value(body -> Assertions.assertThat(body.getErrorMessage())
+                        .isEqualTo("Chunk 1 does not match its Content-Digest"));
+    }
+
+    @Test
+    @DisplayName("Поиск ресурсов возвращает страницу и курсор следующей страницы")
+    void whenListingResources_thenReturnPageWithCursor() {
+        UUID uuid = UUID.fromString("9550a615-edd0-44b0-a2ca-507d6d6f5aeb");
+        ResourcePage page = new ResourcePage(List.of(new ResourceSummary(uuid, Bucket.PRODUCT, Category.IMAGE,
+                "Frog Image File", MediaType.IMAGE_PNG_VALUE, UPDATED_AT, UPDATED_AT)), "MjAyNi0xMC0xN1QxMjozMDoxNS8x");
+
+        Mockito.doReturn(Mono.just(page))
+                .when(storage)
+                .findResources(new ResourceFilter(Bucket.PRODUCT, Category.IMAGE, UPDATED_AT.minusDays(1), null), null, 1);
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/list")
+                        .queryParam("bucket", Bucket.PRODUCT)
+                        .queryParam("category", Category.IMAGE)
+                        .queryParam("from", UPDATED_AT.minusDays(1))
+                        .queryParam("limit", 1)
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ResourcePage.class)
+                .isEqualTo(page);
+    }
+
+    @Test
+    @DisplayName("Поиск ресурсов с неверным курсором, возвращается статус 400")
+    void whenListingResourcesWithMalformedCursor_thenReturnBadRequestStatus() {
+        Mockito.doReturn(Mono.error(new ResourceListingException("Malformed cursor: broken")))
+                .when(storage)
+                .findResources(Mockito.any(), Mockito.eq("broken"), Mockito.anyInt());
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/resource/list")
+                        .queryParam("bucket", Bucket.PRODUCT)
+                        .queryParam("cursor", "broken")
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ResponseExceptionDto.class)
+                .value(body -> Assertions.assertThat(body.getErrorMessage()).isEqualTo("Malformed cursor: broken"));
+    }
+}
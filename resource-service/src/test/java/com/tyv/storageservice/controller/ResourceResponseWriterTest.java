@@ -0,0 +1,100 @@
+package com.tyv.storageservice.controller;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.model.ResourceStream;
+import com.tyv.storageservice.service.Storage;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+class ResourceResponseWriterTest {
+    private static final byte[] CONTENT = "zero-copy file content".getBytes(StandardCharsets.UTF_8);
+    private static final Path FILE = Path.of("/storage/product/2026-10-17/file.txt");
+
+    private Storage storage;
+    private ResourceResponseWriter writer;
+    private StorageResource resource;
+
+    @BeforeEach
+    void setUp() {
+        storage = Mockito.mock(Storage.class);
+        writer = new ResourceResponseWriter(storage);
+        resource = StorageResource.builder()
+                .uuid(UUID.randomUUID())
+                .title("file.txt")
+                .contentType(MediaType.TEXT_PLAIN_VALUE)
+                .path("2026-10-17/file.txt")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Файл целиком отправляется через zero-copy, если ответ его поддерживает")
+    void whenResponseIsZeroCopy_thenWholeFileIsSentFromFile() {
+        ServerHttpResponse response = zeroCopyResponse();
+
+        writer.write(stream(0, CONTENT.length, FILE), response).block();
+
+        Mockito.verify((ZeroCopyHttpOutputMessage) response).writeWith(FILE, 0, CONTENT.length);
+        Mockito.verify(response, Mockito.never()).writeWith(Mockito.any());
+        Assertions.assertThat(response.getHeaders().getContentLength()).isEqualTo(CONTENT.length);
+    }
+
+    @Test
+    @DisplayName("Диапазон отправляется через zero-copy с позицией и длиной диапазона")
+    void whenRangeIsRequested_thenRegionIsSentFromFile() {
+        ServerHttpResponse response = zeroCopyResponse();
+        Mockito.when(storage.getContentLength(resource)).thenReturn(Mono.just((long) CONTENT.length));
+        Mockito.when(storage.getFileStream(resource, 10, 4)).thenReturn(Mono.just(stream(10, 4, FILE)));
+
+        writer.writeRanges(resource, List.of(HttpRange.createByteRange(10, 13)), response).block();
+
+        Mockito.verify((ZeroCopyHttpOutputMessage) response).writeWith(FILE, 10, 4);
+        Mockito.verify(response, Mockito.never()).writeWith(Mockito.any());
+        Assertions.assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE))
+                .isEqualTo("bytes 10-13/" + CONTENT.length);
+        Assertions.assertThat(response.getHeaders().getContentLength()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Если ответ не поддерживает zero-copy, содержимое пишется из потока")
+    void whenResponseIsNotZeroCopy_thenContentIsWritten() {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+
+        writer.write(stream(0, CONTENT.length, FILE), response).block();
+
+        Assertions.assertThat(response.getBodyAsString().block()).isEqualTo(new String(CONTENT, StandardCharsets.UTF_8));
+    }
+
+    private ServerHttpResponse zeroCopyResponse() {
+        ServerHttpResponse response = Mockito.mock(ServerHttpResponse.class,
+                Mockito.withSettings().extraInterfaces(ZeroCopyHttpOutputMessage.class));
+        HttpHeaders headers = new HttpHeaders();
+        Mockito.when(response.getHeaders()).thenReturn(headers);
+        Mockito.when(((ZeroCopyHttpOutputMessage) response).writeWith(Mockito.any(Path.class),
+                Mockito.anyLong(), Mockito.anyLong())).thenReturn(Mono.empty());
+        return response;
+    }
+
+    private ResourceStream stream(long position, long count, Path file) {
+        return new ResourceStream(resource, position, count,
+                Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance
+                        .wrap(Arrays.copyOfRange(CONTENT, (int) position, (int) (position + count))))), file);
+    }
+}
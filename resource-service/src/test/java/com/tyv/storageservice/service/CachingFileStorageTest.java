@@ -0,0 +1,124 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.model.ResourceStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+class CachingFileStorageTest {
+    private static final byte[] SMALL_CONTENT = "small file content".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LARGE_CONTENT = new byte[2048];
+
+    private FileStorage fileStorage;
+    private MeterRegistry meterRegistry;
+    private CachingFileStorage cachingFileStorage;
+
+    @BeforeEach
+    void setUp() {
+        fileStorage = Mockito.mock(FileStorage.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cachingFileStorage = new CachingFileStorage(fileStorage, meterRegistry,
+                DataSize.ofKilobytes(64), DataSize.ofKilobytes(1));
+    }
+
+    @Test
+    @DisplayName("Маленький файл читается из хранилища один раз, затем отдаётся из кэша")
+    void whenSmallFileIsStreamedTwice_thenSecondReadIsServedFromCache() {
+        StorageResource resource = resource("small.txt");
+        Mockito.when(fileStorage.stream(resource))
+                .thenAnswer(invocation -> Mono.just(stream(resource, SMALL_CONTENT)));
+
+        Assertions.assertThat(read(cachingFileStorage.stream(resource))).isEqualTo(SMALL_CONTENT);
+        Assertions.assertThat(read(cachingFileStorage.stream(resource))).isEqualTo(SMALL_CONTENT);
+        Assertions.assertThat(read(cachingFileStorage.stream(resource, 6, 4))).isEqualTo("file".getBytes());
+
+        Mockito.verify(fileStorage, Mockito.times(1)).stream(resource);
+        Assertions.assertThat(meterRegistry.get("storage.byte-cache.requests")
+                .tag("bucket", "product").tag("result", "hit").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Файл больше допустимого размера в кэш не попадает")
+    void whenFileIsLargerThanMaxObjectSize_thenItIsNotCached() {
+        StorageResource resource = resource("large.bin");
+        Mockito.when(fileStorage.stream(resource))
+                .thenAnswer(invocation -> Mono.just(stream(resource, LARGE_CONTENT)));
+
+        Assertions.assertThat(read(cachingFileStorage.stream(resource))).hasSize(LARGE_CONTENT.length);
+        Assertions.assertThat(read(cachingFileStorage.stream(resource))).hasSize(LARGE_CONTENT.length);
+
+        Mockito.verify(fileStorage, Mockito.times(2)).stream(resource);
+    }
+
+    @Test
+    @DisplayName("Файл, длина которого не совпадает с заявленной, в кэш не попадает и читается из хранилища")
+    void whenContentLengthDoesNotMatch_thenFileIsNotCached() {
+        StorageResource longer = resource("longer.txt");
+        StorageResource shorter = resource("shorter.txt");
+        Mockito.when(fileStorage.stream(longer)).thenReturn(
+                Mono.fromSupplier(() -> stream(longer, SMALL_CONTENT, SMALL_CONTENT.length - 5)),
+                Mono.fromSupplier(() -> stream(longer, SMALL_CONTENT)));
+        Mockito.when(fileStorage.stream(shorter)).thenReturn(
+                Mono.fromSupplier(() -> stream(shorter, SMALL_CONTENT, SMALL_CONTENT.length + 5)),
+                Mono.fromSupplier(() -> stream(shorter, SMALL_CONTENT)));
+        Mockito.when(fileStorage.stream(shorter, 6, 4))
+                .thenReturn(Mono.fromSupplier(() -> stream(shorter, "file".getBytes())));
+
+        Assertions.assertThat(read(cachingFileStorage.stream(longer))).isEqualTo(SMALL_CONTENT);
+        Assertions.assertThat(read(cachingFileStorage.stream(shorter))).isEqualTo(SMALL_CONTENT);
+        Assertions.assertThat(read(cachingFileStorage.stream(shorter, 6, 4))).isEqualTo("file".getBytes());
+
+        Mockito.verify(fileStorage, Mockito.times(2)).stream(longer);
+        Mockito.verify(fileStorage, Mockito.times(2)).stream(shorter);
+        Mockito.verify(fileStorage, Mockito.times(1)).stream(shorter, 6, 4);
+    }
+
+    @Test
+    @DisplayName("После удаления файла он удаляется из кэша")
+    void whenFileIsDeleted_thenItIsEvicted() {
+        StorageResource resource = resource("small.txt");
+        Mockito.when(fileStorage.stream(resource))
+                .thenAnswer(invocation -> Mono.just(stream(resource, SMALL_CONTENT)));
+        Mockito.when(fileStorage.deleteFile(resource)).thenReturn(Mono.just(true));
+
+        read(cachingFileStorage.stream(resource));
+        cachingFileStorage.deleteFile(resource).block();
+        read(cachingFileStorage.stream(resource));
+
+        Mockito.verify(fileStorage, Mockito.times(2)).stream(resource);
+    }
+
+    private StorageResource resource(String path) {
+        return StorageResource.builder().bucket(Bucket.PRODUCT).path(path).build();
+    }
+
+    private ResourceStream stream(StorageResource resource, byte[] content) {
+        return stream(resource, content, content.length);
+    }
+
+    private ResourceStream stream(StorageResource resource, byte[] content, long contentLength) {
+        return new ResourceStream(resource, contentLength,
+                Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(content.clone())));
+    }
+
+    private byte[] read(Mono<ResourceStream> stream) {
+        DataBuffer joined = stream.flatMap(resourceStream -> DataBufferUtils.join(resourceStream.content())).block();
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,81 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.exception.ResourceChecksumMismatchException;
+import com.tyv.storageservice.model.ResourceStream;
+import com.tyv.storageservice.util.ContentChecksum;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+class ChecksumVerifierTest {
+    private static final byte[] CONTENT = "stored file content".getBytes(StandardCharsets.UTF_8);
+
+    private MeterRegistry meterRegistry;
+    private ChecksumVerifier checksumVerifier;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        checksumVerifier = new ChecksumVerifier(meterRegistry);
+        ReflectionTestUtils.setField(checksumVerifier, "verifyOnRead", true);
+    }
+
+    @Test
+    @DisplayName("Контрольная сумма CRC32C совпадает с форматом S3 и не зависит от деления на буферы")
+    void whenChecksumIsComputedOverBuffers_thenItMatchesWholeContent() {
+        ContentChecksum checksum = ContentChecksum.crc32c();
+        checksum.checksum(content(CONTENT)).blockLast();
+
+        Assertions.assertThat(checksum.getValue())
+                .isEqualTo(ContentChecksum.of(CONTENT))
+                .hasSize(8);
+        Assertions.assertThat(ContentChecksum.of("123456789".getBytes(StandardCharsets.US_ASCII)))
+                .isEqualTo("4waSgw==");
+    }
+
+    @Test
+    @DisplayName("Совпадающий файл передаётся полностью, повреждённый завершается ошибкой и учитывается в метрике")
+    void whenStoredBytesAreCorrupted_thenStreamFailsAfterContent() {
+        StorageResource resource = StorageResource.builder()
+                .uuid(UUID.fromString("9550a615-edd0-44b0-a2ca-507d6d6f5aeb"))
+                .bucket(Bucket.PRODUCT)
+                .path("file.txt")
+                .checksum(ContentChecksum.of(CONTENT))
+                .build();
+
+        StepVerifier.create(checksumVerifier.verify(stream(resource, CONTENT)).content())
+                .expectNextCount(2)
+                .verifyComplete();
+
+        byte[] corrupted = CONTENT.clone();
+        corrupted[3] ^= 1;
+        StepVerifier.create(checksumVerifier.verify(stream(resource, corrupted)).content())
+                .expectNextCount(2)
+                .verifyError(ResourceChecksumMismatchException.class);
+        Assertions.assertThat(meterRegistry.get("storage.checksum.mismatches").tag("bucket", "product").counter().count())
+                .isEqualTo(1);
+    }
+
+    private ResourceStream stream(StorageResource resource, byte[] data) {
+        return new ResourceStream(resource, data.length, content(data));
+    }
+
+    private Flux<DataBuffer> content(byte[] data) {
+        return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(data, 0, 6)),
+                DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(data, 6, data.length)));
+    }
+}
@@ -0,0 +1,75 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.Category;
+import com.tyv.storageservice.enums.ContentCoding;
+import com.tyv.storageservice.model.ResourceStream;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+class ContentCodecTest {
+    private static final byte[] CONTENT = "compressible text ".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+
+    private ContentCodec contentCodec;
+
+    @BeforeEach
+    void setUp() {
+        contentCodec = new ContentCodec(Schedulers.boundedElastic());
+        ReflectionTestUtils.setField(contentCodec, "enabled", true);
+        ReflectionTestUtils.setField(contentCodec, "categories", Set.of(Category.TEXT, Category.EXCEL));
+    }
+
+    @Test
+    @DisplayName("Сжимаются только категории из настроек")
+    void whenCategoryIsCompressible_thenGzipIsChosen() {
+        Assertions.assertThat(contentCodec.codingFor(Category.TEXT)).isEqualTo(ContentCoding.GZIP);
+        Assertions.assertThat(contentCodec.codingFor(Category.IMAGE)).isEqualTo(ContentCoding.IDENTITY);
+
+        ReflectionTestUtils.setField(contentCodec, "enabled", false);
+        Assertions.assertThat(contentCodec.codingFor(Category.TEXT)).isEqualTo(ContentCoding.IDENTITY);
+    }
+
+    @Test
+    @DisplayName("Сжатое содержимое меньше исходного и распаковывается без потерь")
+    void whenContentIsEncodedAndDecoded_thenItIsTheSame() {
+        byte[] encoded = read(contentCodec.encode(ContentCoding.GZIP, chunks(CONTENT)));
+
+        Assertions.assertThat(encoded.length).isLessThan(CONTENT.length / 10);
+        Assertions.assertThat(contentCodec.decode(ContentCoding.GZIP, encoded)).isEqualTo(CONTENT);
+        Assertions.assertThat(read(contentCodec.decode(ContentCoding.GZIP, chunks(encoded)))).isEqualTo(CONTENT);
+    }
+
+    @Test
+    @DisplayName("Несжатый поток возвращается без изменений")
+    void whenResourceIsNotCompressed_thenStreamIsNotDecoded() {
+        StorageResource resource = StorageResource.builder().build();
+        ResourceStream stream = new ResourceStream(resource, CONTENT.length, chunks(CONTENT));
+
+        Assertions.assertThat(contentCodec.decode(stream)).isSameAs(stream);
+    }
+
+    private Flux<DataBuffer> chunks(byte[] content) {
+        return Flux.range(0, (content.length + 8191) / 8192)
+                .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(content, chunk * 8192,
+                        Math.min(8192, content.length - chunk * 8192))));
+    }
+
+    private byte[] read(Flux<DataBuffer> content) {
+        DataBuffer joined = DataBufferUtils.join(content).block();
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        return bytes;
+    }
+}
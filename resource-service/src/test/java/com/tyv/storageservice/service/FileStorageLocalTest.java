@@ -0,0 +1,222 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.config.ProjectConfiguration;
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.BlockingSchedulerType;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.enums.LocalReadMode;
+import com.tyv.storageservice.model.ResourceStream;
+import com.tyv.storageservice.model.StoredFile;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+
+class FileStorageLocalTest {
+    private static final byte[] CONTENT = "local file content".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    private Path storagePath;
+
+    private FileStorageLocal fileStorage;
+    private MappedFilePool mappedFilePool;
+
+    @BeforeEach
+    void setUp() {
+        mappedFilePool = new MappedFilePool(Schedulers.boundedElastic(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(mappedFilePool, "poolSize", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(mappedFilePool, "maxFileSize", DataSize.ofKilobytes(64));
+        mappedFilePool.init();
+
+        fileStorage = new FileStorageLocal(Schedulers.boundedElastic(), mappedFilePool);
+        ReflectionTestUtils.setField(fileStorage, "STORAGE_PATH", storagePath.toString());
+        ReflectionTestUtils.setField(fileStorage, "readMode", LocalReadMode.STREAM);
+        ReflectionTestUtils.setField(fileStorage, "batchConcurrency", 4);
+    }
+
+    @Test
+    @DisplayName("Сохранённый файл читается целиком и по диапазону, после удаления отсутствует")
+    void whenFileIsSavedReadAndDeleted_thenContentIsTheSame() {
+        StorageResource resource = resource("2026-10-17/file.txt");
+
+        fileStorage.save(resource, Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(CONTENT.clone()))).block();
+
+        Assertions.assertThat(fileStorage.getData(resource).block().getData()).isEqualTo(CONTENT);
+        Assertions.assertThat(read(fileStorage.stream(resource, 6, 4).block().content()))
+                .isEqualTo("file".getBytes(StandardCharsets.UTF_8));
+
+        StepVerifier.create(fileStorage.deleteFiles(List.of(resource)))
+                .expectNext(resource)
+                .verifyComplete();
+        Assertions.assertThat(Files.exists(storagePath.resolve("product/2026-10-17/file.txt"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("В режиме MAPPED файл читается из отображения в память, после удаления отображение сбрасывается")
+    void whenReadModeIsMapped_thenContentIsReadFromMapping() {
+        ReflectionTestUtils.setField(fileStorage, "readMode", LocalReadMode.MAPPED);
+        StorageResource resource = resource("2026-10-17/file.txt");
+
+        fileStorage.save(resource, Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(CONTENT.clone()))).block();
+
+        Assertions.assertThat(read(fileStorage.stream(resource).block().content())).isEqualTo(CONTENT);
+        Assertions.assertThat(read(fileStorage.stream(resource, 6, 4).block().content()))
+                .isEqualTo("file".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertThat(mappedFilePool.get(storagePath.resolve("product/2026-10-17/file.txt")).block())
+                .isInstanceOf(MappedByteBuffer.class);
+
+        fileStorage.deleteFile(resource).block();
+
+        StepVerifier.create(fileStorage.stream(resource))
+                .expectError(NoSuchFileException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("В режиме ZERO_COPY поток указывает на файл и читаемую область, в режиме STREAM нет")
+    void whenReadModeIsZeroCopy_thenStreamPointsToFileRegion() {
+        ReflectionTestUtils.setField(fileStorage, "readMode", LocalReadMode.ZERO_COPY);
+        StorageResource resource = resource("2026-10-17/file.txt");
+        Path file = storagePath.resolve("product/2026-10-17/file.txt");
+
+        fileStorage.save(resource, Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(CONTENT.clone()))).block();
+
+        ResourceStream whole = fileStorage.stream(resource).block();
+        Assertions.assertThat(whole.file()).isEqualTo(file);
+        Assertions.assertThat(whole.position()).isZero();
+        Assertions.assertThat(whole.contentLength()).isEqualTo(CONTENT.length);
+
+        ResourceStream region = fileStorage.stream(resource, 6, 4).block();
+        Assertions.assertThat(region.file()).isEqualTo(file);
+        Assertions.assertThat(region.position()).isEqualTo(6);
+        Assertions.assertThat(region.contentLength()).isEqualTo(4);
+        Assertions.assertThat(read(region.content())).isEqualTo("file".getBytes(StandardCharsets.UTF_8));
+
+        ReflectionTestUtils.setField(fileStorage, "readMode", LocalReadMode.STREAM);
+
+        Assertions.assertThat(fileStorage.stream(resource).block().file()).isNull();
+    }
+
+    @Test
+    @DisplayName("Блокирующие вызовы файловой системы выполняются на переданном планировщике")
+    void whenBlockingCallsAreMade_thenTheyRunOnBlockingScheduler() {
+        Scheduler blockingScheduler = new ProjectConfiguration().blockingScheduler(BlockingSchedulerType.VIRTUAL_THREADS);
+        FileStorageLocal virtualFileStorage = new FileStorageLocal(blockingScheduler, mappedFilePool);
+        ReflectionTestUtils.setField(virtualFileStorage, "STORAGE_PATH", storagePath.toString());
+        ReflectionTestUtils.setField(virtualFileStorage, "readMode", LocalReadMode.STREAM);
+        StorageResource resource = resource("2026-10-17/file.txt");
+        fileStorage.save(resource, Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(CONTENT.clone()))).block();
+
+        try {
+            Assertions.assertThat(virtualFileStorage.contentLength(resource)
+                            .map(size -> Thread.currentThread().isVirtual())
+                            .block())
+                    .isTrue();
+            Assertions.assertThat(virtualFileStorage.deleteFile(resource)
+                            .map(deleted -> deleted && Thread.currentThread().isVirtual())
+                            .block())
+                    .isTrue();
+        } finally {
+            blockingScheduler.dispose();
+        }
+    }
+
+    @Test
+    @DisplayName("Файл больше max-file-size не отображается в память и больше не открывается для пула")
+    void whenFileIsLargerThanMaxFileSize_thenItIsNotMappedAgain() throws IOException {
+        ReflectionTestUtils.setField(fileStorage, "readMode", LocalReadMode.MAPPED);
+        StorageResource resource = resource("large.bin");
+        Path file = storagePath.resolve("product/large.bin");
+        fileStorage.save(resource, Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[128 * 1024]))).block();
+
+        Assertions.assertThat(read(fileStorage.stream(resource).block().content())).hasSize(128 * 1024);
+        Files.delete(file);
+
+        StepVerifier.create(mappedFilePool.get(file)).verifyComplete();
+
+        mappedFilePool.invalidate(file);
+
+        StepVerifier.create(mappedFilePool.get(file))
+                .expectError(NoSuchFileException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Чтение отсутствующего файла завершается ошибкой")
+    void whenFileIsAbsent_thenReadFails() {
+        StepVerifier.create(fileStorage.getData(resource("absent.txt")))
+                .expectError(NoSuchFileException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Файлы корзины перечисляются страницами в порядке путей, отсутствующая корзина — ошибка")
+    void whenBucketIsListed_thenFilesArePagedInPathOrder() {
+        for (String path : List.of("b/2.txt", "a-1.txt", "a/b/1.txt", "a/1.txt", "c.txt")) {
+            fileStorage.save(resource(path), Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(CONTENT.clone()))).block();
+        }
+
+        StepVerifier.create(fileStorage.list(Bucket.PRODUCT, 2)
+                        .map(files -> files.stream().map(StoredFile::path).toList()))
+                .expectNext(List.of("a-1.txt", "a/1.txt"))
+                .expectNext(List.of("a/b/1.txt", "b/2.txt"))
+                .expectNext(List.of("c.txt"))
+                .verifyComplete();
+        StepVerifier.create(fileStorage.list(Bucket.USER, 2))
+                .expectError(NoSuchFileException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Части, сохранённые в любом порядке, собираются в файл, после отмены временный файл удаляется")
+    void whenChunksAreSavedOutOfOrder_thenUploadIsAssembled() {
+        StorageResource resource = resource("2026-10-17/chunked.txt");
+        String uploadId = fileStorage.startUpload(resource).block();
+
+        fileStorage.saveChunk(resource, uploadId, 2, 6, Flux.just(DefaultDataBufferFactory.sharedInstance
+                .wrap("file content".getBytes(StandardCharsets.UTF_8)))).block();
+        fileStorage.saveChunk(resource, uploadId, 1, 0, Flux.just(DefaultDataBufferFactory.sharedInstance
+                .wrap("local ".getBytes(StandardCharsets.UTF_8)))).block();
+        fileStorage.completeUpload(resource, uploadId, List.of()).block();
+
+        Assertions.assertThat(fileStorage.getData(resource).block().getData()).isEqualTo(CONTENT);
+        Assertions.assertThat(storagePath.resolve(".uploads/" + uploadId)).doesNotExist();
+
+        String abortedId = fileStorage.startUpload(resource).block();
+        fileStorage.saveChunk(resource, abortedId, 1, 0, Flux.just(DefaultDataBufferFactory.sharedInstance
+                .wrap(CONTENT.clone()))).block();
+        fileStorage.abortUpload(resource, abortedId).block();
+
+        Assertions.assertThat(storagePath.resolve(".uploads/" + abortedId)).doesNotExist();
+    }
+
+    private StorageResource resource(String path) {
+        return StorageResource.builder().bucket(Bucket.PRODUCT).path(path).build();
+    }
+
+    private byte[] read(Flux<DataBuffer> content) {
+        DataBuffer joined = DataBufferUtils.join(content).block();
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        return bytes;
+    }
+}
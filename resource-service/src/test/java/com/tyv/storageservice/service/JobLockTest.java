@@ -0,0 +1,47 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.TestcontainersPostgresConfiguration;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Import(TestcontainersPostgresConfiguration.class)
+@SpringBootTest(properties = "spring.profiles.active=localStorage")
+class JobLockTest {
+    @Autowired
+    private JobLock jobLock;
+
+    @Test
+    @DisplayName("Пока задача выполняется, повторный запуск с тем же именем пропускается, после завершения блокировка снимается")
+    void whenJobIsRunning_thenSecondRunIsSkipped() throws Exception {
+        Sinks.Empty<Void> started = Sinks.empty();
+        Sinks.One<String> finished = Sinks.one();
+
+        CompletableFuture<String> first = jobLock.runExclusively("test-job", Mono.defer(() -> {
+                    started.tryEmitEmpty();
+                    return finished.asMono();
+                }))
+                .toFuture();
+        started.asMono().block(Duration.ofSeconds(10));
+
+        StepVerifier.create(jobLock.runExclusively("test-job", Mono.just("second")))
+                .verifyComplete();
+
+        finished.tryEmitValue("first");
+        Assertions.assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("first");
+
+        StepVerifier.create(jobLock.runExclusively("test-job", Mono.just("third")))
+                .expectNext("third")
+                .verifyComplete();
+    }
+}
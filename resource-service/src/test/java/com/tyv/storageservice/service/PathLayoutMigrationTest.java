@@ -0,0 +1,82 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.TestcontainersPostgresConfiguration;
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.repository.ResourceRepository;
+import com.tyv.storageservice.util.FileConstants;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static com.tyv.storageservice.util.LocalStorageResourceUtil.*;
+
+@Import(TestcontainersPostgresConfiguration.class)
+@SpringBootTest(properties = {
+        "spring.profiles.active=localStorage",
+        "storage.path-layout=HASH_PREFIX",
+        "storage.path-layout-migration.enabled=true",
+        "storage.path-layout-migration.unlink-delay=0s"})
+class PathLayoutMigrationTest {
+    @Autowired
+    private PathLayoutMigration pathLayoutMigration;
+
+    @Autowired
+    private Storage storage;
+
+    @Autowired
+    private ResourceRepository resourceRepository;
+
+    @Value("${storage.path}")
+    private Path storagePath;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        deleteDirectory(storagePath);
+    }
+
+    @Test
+    @Sql(scripts = {
+            "/scripts/cleanup_resource.sql",
+            "/scripts/insert_resource.sql"})
+    @DisplayName("Файл переносится в новую раскладку, путь ресурса обновляется, данные доступны")
+    void whenMigrate_thenFileIsMovedAndPathIsRewritten() throws IOException {
+        prepareTestDirectory(storagePath);
+        byte[] expected = readSourceFile(FileConstants.FROG);
+        UUID frogUUID = UUID.fromString(FileConstants.FROG.getUuid());
+
+        StepVerifier.create(pathLayoutMigration.migrate())
+                .expectNext(1L)
+                .verifyComplete();
+
+        StorageResource resource = resourceRepository.findByUuid(frogUUID).block();
+        Assertions.assertThat(resource.getPath())
+                .isEqualTo("02/a1/" + FileConstants.FROG.getNameWithUUID());
+        Assertions.assertThat(Files.exists(storagePath.resolve("product").resolve(resource.getPath()))).isTrue();
+        Assertions.assertThat(Files.exists(storagePath.resolve("product")
+                        .resolve(LocalDate.now().toString()).resolve(FileConstants.FROG.getNameWithUUID())))
+                .isFalse();
+
+        StepVerifier.create(storage.getFileDataByUUID(Mono.just(frogUUID.toString())))
+                .expectNextMatches(found -> Arrays.equals(found.getData(), expected))
+                .verifyComplete();
+
+        StepVerifier.create(pathLayoutMigration.migrate())
+                .expectNext(0L)
+                .verifyComplete();
+    }
+}
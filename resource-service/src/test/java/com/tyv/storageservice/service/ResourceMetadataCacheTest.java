@@ -0,0 +1,90 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.entity.UploadSession;
+import com.tyv.storageservice.repository.ResourceRepository;
+import com.tyv.storageservice.repository.UploadSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+
+class ResourceMetadataCacheTest {
+    private static final UUID UUID_VALUE = UUID.fromString("0b3e3c3a-7f4d-4a51-9d3e-2f1a4c6b8e90");
+
+    private ResourceRepository resourceRepository;
+    private UploadSessionRepository uploadSessionRepository;
+    private MeterRegistry meterRegistry;
+    private ResourceMetadataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        resourceRepository = Mockito.mock(ResourceRepository.class);
+        uploadSessionRepository = Mockito.mock(UploadSessionRepository.class);
+        Mockito.when(uploadSessionRepository.findByUuid(Mockito.any())).thenReturn(Mono.empty());
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ResourceMetadataCache(resourceRepository, uploadSessionRepository, meterRegistry);
+        ReflectionTestUtils.setField(cache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(cache, "negativeTtl", Duration.ofSeconds(30));
+        cache.init();
+    }
+
+    @Test
+    @DisplayName("Повторный поиск ресурса не обращается к базе данных и возвращает копию")
+    void whenFindTwice_thenRepositoryIsCalledOnceAndCopyIsReturned() {
+        StorageResource resource = StorageResource.builder().id(1L).uuid(UUID_VALUE).title("frog.png").build();
+        Mockito.when(resourceRepository.findByUuid(UUID_VALUE)).thenReturn(Mono.just(resource));
+
+        StorageResource first = cache.findByUuid(UUID_VALUE).block();
+        first.setData(new byte[]{1, 2, 3});
+        StorageResource second = cache.findByUuid(UUID_VALUE).block();
+
+        Assertions.assertThat(second).isNotSameAs(first);
+        Assertions.assertThat(second.getData()).isNull();
+        Assertions.assertThat(second.getTitle()).isEqualTo("frog.png");
+        Mockito.verify(resourceRepository, Mockito.times(1)).findByUuid(UUID_VALUE);
+        Assertions.assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Отсутствующий ресурс кэшируется, после удаления из кэша запрашивается снова")
+    void whenResourceIsAbsent_thenEmptyResultIsCachedUntilEvicted() {
+        Mockito.when(resourceRepository.findByUuid(UUID_VALUE)).thenReturn(Mono.empty());
+
+        StepVerifier.create(cache.findByUuid(UUID_VALUE)).verifyComplete();
+        StepVerifier.create(cache.findByUuid(UUID_VALUE)).verifyComplete();
+        Mockito.verify(uploadSessionRepository, Mockito.times(1)).findByUuid(UUID_VALUE);
+
+        cache.evict(UUID_VALUE);
+
+        StepVerifier.create(cache.findByUuid(UUID_VALUE)).verifyComplete();
+        Mockito.verify(uploadSessionRepository, Mockito.times(2)).findByUuid(UUID_VALUE);
+    }
+
+    @Test
+    @DisplayName("Отсутствие ресурса с незавершённой сессией загрузки не кэшируется")
+    void whenResourceIsBeingUploaded_thenEmptyResultIsNotCached() {
+        StorageResource resource = StorageResource.builder().id(1L).uuid(UUID_VALUE).title("frog.png").build();
+        Mockito.when(resourceRepository.findByUuid(UUID_VALUE)).thenReturn(Mono.empty());
+        Mockito.when(uploadSessionRepository.findByUuid(UUID_VALUE)).thenReturn(Mono.just(new UploadSession()));
+
+        StepVerifier.create(cache.findByUuid(UUID_VALUE)).verifyComplete();
+
+        Mockito.when(resourceRepository.findByUuid(UUID_VALUE)).thenReturn(Mono.just(resource));
+
+        StepVerifier.create(cache.findByUuid(UUID_VALUE))
+                .expectNextMatches(found -> found.getTitle().equals("frog.png"))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,44 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.enums.PathLayout;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+class ResourcePathFactoryTest {
+    private static final UUID UUID_VALUE = UUID.fromString("0b3e3c3a-7f4d-4a51-9d3e-2f1a4c6b8e90");
+
+    @Test
+    @DisplayName("Раскладка по дате кладёт файл в каталог текущего дня")
+    void whenLayoutIsDate_thenPathStartsWithCurrentDate() {
+        ResourcePathFactory factory = factory(PathLayout.DATE);
+
+        Assertions.assertThat(factory.create(UUID_VALUE, "frog.png"))
+                .isEqualTo(LocalDate.now() + "/" + UUID_VALUE + "-frog.png");
+        Assertions.assertThat(factory.relocate("2025-01-23/" + UUID_VALUE + "-frog.png"))
+                .isEqualTo("2025-01-23/" + UUID_VALUE + "-frog.png");
+    }
+
+    @Test
+    @DisplayName("Раскладка по префиксу распределяет файлы по двум уровням каталогов")
+    void whenLayoutIsHashPrefix_thenPathIsFannedOut() {
+        ResourcePathFactory factory = factory(PathLayout.HASH_PREFIX);
+
+        Assertions.assertThat(factory.create(UUID_VALUE, "frog.png"))
+                .isEqualTo("0b/3e/" + UUID_VALUE + "-frog.png");
+        Assertions.assertThat(factory.relocate("2025-01-23/" + UUID_VALUE + "-frog.png"))
+                .isEqualTo("0b/3e/" + UUID_VALUE + "-frog.png");
+        Assertions.assertThat(factory.relocate("0b/3e/" + UUID_VALUE + "-frog.png"))
+                .isEqualTo("0b/3e/" + UUID_VALUE + "-frog.png");
+    }
+
+    private ResourcePathFactory factory(PathLayout layout) {
+        ResourcePathFactory factory = new ResourcePathFactory();
+        ReflectionTestUtils.setField(factory, "layout", layout);
+        return factory;
+    }
+}
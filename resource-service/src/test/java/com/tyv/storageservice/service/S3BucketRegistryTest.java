@@ -0,0 +1,82 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.enums.Bucket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.CreateBucketResponse;
+import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+import software.amazon.awssdk.services.s3.model.HeadBucketResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+
+import java.util.concurrent.CompletableFuture;
+
+class S3BucketRegistryTest {
+
+    private S3AsyncClient s3Client;
+    private S3BucketRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        s3Client = Mockito.mock(S3AsyncClient.class);
+        registry = new S3BucketRegistry(new S3RequestFactory(), s3Client);
+    }
+
+    @Test
+    @DisplayName("Существующая при запуске корзина больше не проверяется")
+    void whenBucketExistsAtStartup_thenEnsureDoesNotCallS3() {
+        Mockito.when(s3Client.headBucket(Mockito.any(HeadBucketRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(HeadBucketResponse.builder().build()));
+
+        registry.init();
+        StepVerifier.create(registry.ensure(Bucket.PRODUCT)).verifyComplete();
+
+        Mockito.verify(s3Client, Mockito.times(Bucket.values().length)).headBucket(Mockito.any(HeadBucketRequest.class));
+        Mockito.verify(s3Client, Mockito.never()).createBucket(Mockito.any(CreateBucketRequest.class));
+    }
+
+    @Test
+    @DisplayName("Отсутствующая корзина создаётся один раз при одновременных обращениях")
+    void whenBucketIsMissing_thenConcurrentCallersShareOneCreation() {
+        CompletableFuture<CreateBucketResponse> creation = new CompletableFuture<>();
+        Mockito.when(s3Client.headBucket(Mockito.any(HeadBucketRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(NoSuchBucketException.builder().build()));
+        Mockito.when(s3Client.createBucket(Mockito.any(CreateBucketRequest.class))).thenReturn(creation);
+
+        Mono<Void> first = registry.ensure(Bucket.COMMENT);
+        Mono<Void> second = registry.ensure(Bucket.COMMENT);
+        first.subscribe();
+        second.subscribe();
+        creation.complete(CreateBucketResponse.builder().build());
+
+        StepVerifier.create(registry.ensure(Bucket.COMMENT)).verifyComplete();
+        Mockito.verify(s3Client, Mockito.times(1)).headBucket(Mockito.any(HeadBucketRequest.class));
+        Mockito.verify(s3Client, Mockito.times(1)).createBucket(Mockito.any(CreateBucketRequest.class));
+    }
+
+    @Test
+    @DisplayName("Ошибка устаревшей проверки не удаляет более новую проверку корзины")
+    void whenStaleCheckFails_thenNewerCheckIsKept() {
+        CompletableFuture<CreateBucketResponse> staleCreation = new CompletableFuture<>();
+        Mockito.when(s3Client.headBucket(Mockito.any(HeadBucketRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(NoSuchBucketException.builder().build()));
+        Mockito.when(s3Client.createBucket(Mockito.any(CreateBucketRequest.class)))
+                .thenReturn(staleCreation)
+                .thenReturn(CompletableFuture.completedFuture(CreateBucketResponse.builder().build()));
+
+        registry.ensure(Bucket.COMMENT).subscribe(null, throwable -> {
+        });
+        registry.forget(Bucket.COMMENT);
+        StepVerifier.create(registry.ensure(Bucket.COMMENT)).verifyComplete();
+        staleCreation.completeExceptionally(new IllegalStateException("Something went wrong"));
+
+        StepVerifier.create(registry.ensure(Bucket.COMMENT)).verifyComplete();
+        Mockito.verify(s3Client, Mockito.times(2)).headBucket(Mockito.any(HeadBucketRequest.class));
+        Mockito.verify(s3Client, Mockito.times(2)).createBucket(Mockito.any(CreateBucketRequest.class));
+    }
+}
@@ -0,0 +1,71 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.TestcontainersPostgresConfiguration;
+import com.tyv.storageservice.TestcontainersS3AWSConfiguration;
+import com.tyv.storageservice.util.AwsStorageResourceUtil;
+import com.tyv.storageservice.util.FileConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.test.context.jdbc.Sql;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.tyv.storageservice.util.LocalStorageResourceUtil.readSourceFile;
+
+@Import({TestcontainersPostgresConfiguration.class, TestcontainersS3AWSConfiguration.class})
+@SpringBootTest(properties = {
+        "spring.profiles.active=awsStorageTest",
+        "storage.aws.client.type=CRT"})
+class StorageAWSCrtClientTest {
+
+    @Autowired
+    private Storage storage;
+
+    @Autowired
+    private S3AsyncClient s3Client;
+
+    private AwsStorageResourceUtil util;
+
+    @BeforeEach
+    void setUp() {
+        util = new AwsStorageResourceUtil(s3Client);
+        util.prepareTestBuckets();
+    }
+
+    @AfterEach
+    void tearDown() {
+        util.dropTestBuckets();
+    }
+
+    @Test
+    @Sql(scripts = {
+            "/scripts/cleanup_resource.sql",
+            "/scripts/insert_resource.sql"})
+    @DisplayName("Клиент CRT: ресурс с указанным UUID существует, вернуть поток данных")
+    void whenCrtClient_thenStreamFileData() throws IOException {
+        byte[] expected = readSourceFile(FileConstants.FROG);
+
+        Mono<byte[]> streamedData = storage.getFileStreamByUUID(Mono.just(FileConstants.FROG.getUuid()))
+                .flatMap(stream -> DataBufferUtils.join(stream.content())
+                        .map(dataBuffer -> {
+                            byte[] bytes = new byte[dataBuffer.readableByteCount()];
+                            dataBuffer.read(bytes);
+                            DataBufferUtils.release(dataBuffer);
+                            return bytes;
+                        }));
+
+        StepVerifier.create(streamedData)
+                .expectNextMatches(bytes -> Arrays.equals(bytes, expected))
+                .verifyComplete();
+    }
+}
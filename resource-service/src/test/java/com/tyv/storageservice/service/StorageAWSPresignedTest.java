@@ -0,0 +1,92 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.TestcontainersPostgresConfiguration;
+import com.tyv.storageservice.TestcontainersS3AWSConfiguration;
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.enums.Category;
+import com.tyv.storageservice.model.Metadata;
+import com.tyv.storageservice.model.PresignedUpload;
+import com.tyv.storageservice.model.PresignedUrl;
+import com.tyv.storageservice.util.AwsStorageResourceUtil;
+import com.tyv.storageservice.util.FileConstants;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static com.tyv.storageservice.util.LocalStorageResourceUtil.readSourceFile;
+
+@Import({TestcontainersPostgresConfiguration.class, TestcontainersS3AWSConfiguration.class})
+@SpringBootTest(properties = {
+        "spring.profiles.active=awsStorageTest",
+        "storage.aws.presigned.download-redirect=true"})
+class StorageAWSPresignedTest {
+
+    @Autowired
+    private Storage storage;
+
+    @Autowired
+    private S3AsyncClient s3Client;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private AwsStorageResourceUtil util;
+
+    @BeforeEach
+    void setUp() {
+        util = new AwsStorageResourceUtil(s3Client);
+        util.prepareTestBuckets();
+    }
+
+    @AfterEach
+    void tearDown() {
+        util.dropTestBuckets();
+    }
+
+    @Test
+    @Sql(scripts = "/scripts/cleanup_resource.sql")
+    @DisplayName("Файл загружается и скачивается по временным ссылкам в обход сервиса")
+    void whenUploadAndDownloadByPresignedUrls_thenContentIsTheSame() throws IOException, InterruptedException {
+        byte[] data = readSourceFile(FileConstants.FROG);
+
+        PresignedUpload upload = storage.createResourceUploadUrl(
+                        Mono.just(new Metadata(Bucket.PRODUCT, Category.IMAGE)),
+                        FileConstants.FROG.getSourceName(),
+                        MediaType.IMAGE_PNG_VALUE)
+                .block();
+
+        Assertions.assertThat(upload).isNotNull();
+        HttpResponse<Void> uploadResponse = httpClient.send(HttpRequest.newBuilder(upload.url())
+                        .header(HttpHeaders.CONTENT_TYPE, upload.contentType())
+                        .PUT(HttpRequest.BodyPublishers.ofByteArray(data))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        Assertions.assertThat(uploadResponse.statusCode()).isEqualTo(200);
+
+        StorageResource resource = storage.getResourceByUUID(Mono.just(upload.uuid().toString())).block();
+        PresignedUrl downloadUrl = storage.getDownloadUrl(resource).block();
+
+        Assertions.assertThat(downloadUrl).isNotNull();
+        HttpResponse<byte[]> downloadResponse = httpClient.send(HttpRequest.newBuilder(downloadUrl.url()).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertThat(downloadResponse.statusCode()).isEqualTo(200);
+        Assertions.assertThat(downloadResponse.headers().firstValue(HttpHeaders.CONTENT_TYPE))
+                .contains(MediaType.IMAGE_PNG_VALUE);
+        Assertions.assertThat(downloadResponse.body()).isEqualTo(data);
+    }
+}
@@ -3,6 +3,7 @@ package com.tyv.storageservice.service;
 import com.tyv.storageservice.TestcontainersPostgresConfiguration;
 import com.tyv.storageservice.TestcontainersS3AWSConfiguration;
 import com.tyv.storageservice.model.Metadata;
+import com.tyv.storageservice.model.ResourceStream;
 import com.tyv.storageservice.entity.StorageResource;
 import com.tyv.storageservice.enums.Bucket;
 import com.tyv.storageservice.enums.Category;
@@ -10,6 +11,7 @@ import com.tyv.storageservice.exception.ResourceNotFoundException;
 import com.tyv.storageservice.exception.ResourceReadingException;
 import com.tyv.storageservice.repository.ResourceRepository;
 import com.tyv.storageservice.util.AwsStorageResourceUtil;
+import com.tyv.storageservice.util.CustomFilePart;
 import com.tyv.storageservice.util.FileConstants;
 import org.apache.http.entity.ContentType;
 import org.assertj.core.api.Assertions;
@@ -17,8 +19,12 @@ import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.util.MultiValueMap;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -27,8 +33,11 @@ import software.amazon.awssdk.services.s3.S3AsyncClient;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
 import java.util.UUID;
 
 import static com.tyv.storageservice.enums.Bucket.COMMENT;
@@ -76,6 +85,29 @@ class StorageAWSTest {
                 .verifyComplete();
     }
 
+    @Test
+    @Sql(scripts = {
+            "/scripts/cleanup_resource.sql",
+            "/scripts/insert_resource.sql"})
+    @DisplayName("Ресурс с указанным UUID существует, вернуть поток данных")
+    void whenResourceExists_thenStreamFileData() throws IOException {
+        util.prepareTestBuckets();
+        byte[] expected = readSourceFile(FileConstants.FROG);
+
+        Mono<byte[]> streamedData = storage.getFileStreamByUUID(Mono.just(FileConstants.FROG.getUuid()))
+                .flatMap(stream -> DataBufferUtils.join(stream.content())
+                        .map(dataBuffer -> {
+                            byte[] bytes = new byte[dataBuffer.readableByteCount()];
+                            dataBuffer.read(bytes);
+                            DataBufferUtils.release(dataBuffer);
+                            return bytes;
+                        }));
+
+        StepVerifier.create(streamedData)
+                .expectNextMatches(bytes -> Arrays.equals(bytes, expected))
+                .verifyComplete();
+    }
+
     @Test
     @Sql(scripts = "/scripts/cleanup_resource.sql")
     @DisplayName("Ресурс с указанным UUID не существует, сообщение об отсутствии ресурса")
@@ -128,7 +160,7 @@ class StorageAWSTest {
                 .expectComplete()
                 .verify();
 
-        Iterable<StorageResource> all = resourceRepository.findAll();
+        Iterable<StorageResource> all = resourceRepository.findAll().collectList().block();
 
         Assertions.assertThat(all).hasSize(1);
         StorageResource actual = all.iterator().next();
@@ -146,6 +178,28 @@ class StorageAWSTest {
         Assertions.assertThat(util.isExists(PRODUCT, Path.of(actual.getPath()))).isTrue();
     }
 
+    @Test
+    @Sql(scripts = "/scripts/cleanup_resource.sql")
+    @DisplayName("Сохранение большого файла через multipart upload")
+    void whenSaveLargeResource_thenUploadedWithMultipartUpload() {
+        byte[] data = new byte[12 * 1024 * 1024];
+        new Random(42).nextBytes(data);
+        FilePart filePart = new CustomFilePart("large.bin",
+                new HttpHeaders(MultiValueMap.fromSingleValue(
+                        Map.of(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE))),
+                data);
+
+        Mono<Long> storedSize = storage.createResourceAndGetUUID(
+                        Mono.just(new Metadata(Bucket.PRODUCT, Category.VIDEO)),
+                        Mono.just(filePart))
+                .flatMap(uuid -> storage.getFileStreamByUUID(Mono.just(uuid.toString())))
+                .map(ResourceStream::contentLength);
+
+        StepVerifier.create(storedSize)
+                .expectNext((long) data.length)
+                .verifyComplete();
+    }
+
     @Test
     @Sql(scripts = "/scripts/cleanup_resource.sql")
     @DisplayName("Сохранение нескольких файлов")
@@ -164,7 +218,7 @@ class StorageAWSTest {
                 .expectComplete()
                 .verify();
 
-        Iterable<StorageResource> all = resourceRepository.findAll();
+        Iterable<StorageResource> all = resourceRepository.findAll().collectList().block();
 
         Assertions.assertThat(all).hasSize(3);
 
@@ -198,7 +252,7 @@ class StorageAWSTest {
                 .expectComplete()
                 .verify();
 
-        Assertions.assertThat(resourceRepository.findByUuid(UUID.fromString(FileConstants.FROG.getUuid())))
+        Assertions.assertThat(resourceRepository.findByUuid(UUID.fromString(FileConstants.FROG.getUuid())).blockOptional())
                 .isEmpty();
 
         Assertions.assertThat(util.isExists(PRODUCT, FileConstants.FROG)).isFalse();
@@ -214,7 +268,7 @@ class StorageAWSTest {
                 .expectError(ResourceNotFoundException.class)
                 .verify();
 
-        Assertions.assertThat(resourceRepository.findByUuid(UUID.fromString(FileConstants.FROG.getUuid())))
+        Assertions.assertThat(resourceRepository.findByUuid(UUID.fromString(FileConstants.FROG.getUuid())).blockOptional())
                 .isEmpty();
 
         Assertions.assertThat(util.isExists(PRODUCT, FileConstants.FROG)).isFalse();
@@ -232,7 +286,7 @@ class StorageAWSTest {
                 .expectError(RuntimeException.class)
                 .verify();
 
-        Assertions.assertThat(resourceRepository.findByUuid(UUID.fromString(FileConstants.FROG.getUuid())))
+        Assertions.assertThat(resourceRepository.findByUuid(UUID.fromString(FileConstants.FROG.getUuid())).blockOptional())
                 .isPresent();
 
         Assertions.assertThat(util.isExists(PRODUCT, FileConstants.FROG)).isFalse();
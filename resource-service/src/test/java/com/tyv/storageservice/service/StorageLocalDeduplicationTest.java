@@ -0,0 +1,81 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.TestcontainersPostgresConfiguration;
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.enums.Category;
+import com.tyv.storageservice.model.Metadata;
+import com.tyv.storageservice.repository.ResourceRepository;
+import com.tyv.storageservice.util.FileConstants;
+import org.apache.http.entity.ContentType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static com.tyv.storageservice.util.LocalStorageResourceUtil.*;
+
+@Import(TestcontainersPostgresConfiguration.class)
+@SpringBootTest(properties = {
+        "spring.profiles.active=localStorage",
+        "storage.deduplication.enabled=true"})
+class StorageLocalDeduplicationTest {
+    @Autowired
+    private Storage storage;
+
+    @Autowired
+    private ResourceRepository resourceRepository;
+
+    @Value("${storage.path}")
+    private Path storagePath;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        deleteDirectory(storagePath);
+    }
+
+    @Test
+    @Sql(scripts = "/scripts/cleanup_resource.sql")
+    @DisplayName("Одинаковые файлы хранятся один раз, файл удаляется вместе с последним ресурсом")
+    void whenSaveSameFileTwice_thenFileIsStoredOnceAndDeletedWithLastResource() throws IOException, URISyntaxException {
+        Metadata metadata = new Metadata(Bucket.PRODUCT, Category.IMAGE);
+
+        UUID first = storage.createResourceAndGetUUID(Mono.just(metadata),
+                Mono.just(createFilePart(ContentType.IMAGE_PNG, FileConstants.FROG))).block();
+        UUID second = storage.createResourceAndGetUUID(Mono.just(metadata),
+                Mono.just(createFilePart(ContentType.IMAGE_PNG, FileConstants.FROG))).block();
+
+        StorageResource firstResource = resourceRepository.findByUuid(first).block();
+        StorageResource secondResource = resourceRepository.findByUuid(second).block();
+
+        Assertions.assertThat(firstResource.getBlobHash()).isNotNull();
+        Assertions.assertThat(secondResource.getBlobHash()).isEqualTo(firstResource.getBlobHash());
+        Assertions.assertThat(secondResource.getPath()).isEqualTo(firstResource.getPath());
+        Assertions.assertThat(countFiles(storagePath)).isEqualTo(1);
+
+        storage.deleteResourceByUUID(Mono.just(first.toString())).block();
+        Assertions.assertThat(countFiles(storagePath)).isEqualTo(1);
+
+        storage.deleteResourceByUUID(Mono.just(second.toString())).block();
+        Assertions.assertThat(countFiles(storagePath)).isZero();
+    }
+
+    private long countFiles(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.tyv.storageservice.service;
 
 import com.tyv.storageservice.TestcontainersPostgresConfiguration;
+import com.tyv.storageservice.model.BatchUploadResult;
 import com.tyv.storageservice.model.Metadata;
 import com.tyv.storageservice.entity.StorageResource;
 import com.tyv.storageservice.enums.Bucket;
@@ -17,15 +18,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
-import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.context.jdbc.Sql;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
 
 import static com.tyv.storageservice.util.LocalStorageResourceUtil.*;
@@ -60,7 +63,7 @@ public class StorageLocalMockFileStorageTest {
 
         Mockito.doReturn(Mono.error(() -> new RuntimeException("Something went wrong")))
                 .when(fileStorage)
-                .save(Mockito.any(StorageResource.class), Mockito.any(FilePart.class));
+                .save(Mockito.any(StorageResource.class), Mockito.any());
 
         Mono<UUID> savedResourceUUID = storage.createResourceAndGetUUID(
                 Mono.just(metadata),
@@ -70,7 +73,81 @@ public class StorageLocalMockFileStorageTest {
                 .expectError()
                 .verify();
 
-        Assertions.assertThat(resourceRepository.count()).isZero();
+        Assertions.assertThat(resourceRepository.count().block()).isZero();
         Assertions.assertThat(isDirectoryEmptyRecursively(storagePath)).isFalse();
     }
+
+    @Test
+    @Sql(scripts = "/scripts/cleanup_resource.sql")
+    @DisplayName("Пакетная загрузка: ошибка сохранения одного файла не прерывает загрузку остальных")
+    void whenOneFileOfBatchFails_thenOtherFilesAreSaved() throws IOException, URISyntaxException {
+        Metadata metadata = new Metadata(Bucket.COMMENT, Category.IMAGE);
+
+        Mockito.doReturn(Mono.error(() -> new RuntimeException("Something went wrong")))
+                .when(fileStorage)
+                .save(Mockito.argThat(resource -> resource != null
+                        && FileConstants.SNAKE.getSourceName().equals(resource.getTitle())), Mockito.any());
+
+        List<BatchUploadResult> results = storage.createResources(
+                        Mono.just(metadata),
+                        Flux.just(
+                                createFilePart(ContentType.IMAGE_PNG, FileConstants.FROG),
+                                createFilePart(ContentType.IMAGE_PNG, FileConstants.SNAKE),
+                                createFilePart(ContentType.IMAGE_PNG, FileConstants.LIZARD)))
+                .collectList()
+                .block();
+
+        Assertions.assertThat(results)
+                .extracting(BatchUploadResult::filename, BatchUploadResult::isCreated)
+                .containsExactlyInAnyOrder(
+                        Assertions.tuple(FileConstants.FROG.getSourceName(), true),
+                        Assertions.tuple(FileConstants.SNAKE.getSourceName(), false),
+                        Assertions.tuple(FileConstants.LIZARD.getSourceName(), true));
+        Assertions.assertThat(resourceRepository.count().block()).isEqualTo(2);
+    }
+
+    @Test
+    @Sql(scripts = "/scripts/cleanup_resource.sql")
+    @DisplayName("Пакетная загрузка: при отмене загрузки удаляются ресурсы, файлы которых не сохранены")
+    void whenBatchIsCancelled_thenResourcesWithoutFilesAreDeleted() throws IOException, URISyntaxException {
+        Metadata metadata = new Metadata(Bucket.COMMENT, Category.IMAGE);
+
+        Mockito.doReturn(Mono.never())
+                .when(fileStorage)
+                .save(Mockito.argThat(resource -> resource != null
+                        && !FileConstants.FROG.getSourceName().equals(resource.getTitle())), Mockito.any());
+
+        BatchUploadResult first = storage.createResources(
+                        Mono.just(metadata),
+                        Flux.just(
+                                createFilePart(ContentType.IMAGE_PNG, FileConstants.FROG),
+                                createFilePart(ContentType.IMAGE_PNG, FileConstants.SNAKE),
+                                createFilePart(ContentType.IMAGE_PNG, FileConstants.LIZARD)))
+                .blockFirst();
+
+        Assertions.assertThat(first.filename()).isEqualTo(FileConstants.FROG.getSourceName());
+        Long remaining = Flux.interval(Duration.ofMillis(50))
+                .concatMap(tick -> resourceRepository.count())
+                .filter(count -> count == 1)
+                .blockFirst(Duration.ofSeconds(5));
+        Assertions.assertThat(remaining).isEqualTo(1);
+        Assertions.assertThat(resourceRepository.findByUuid(first.uuid()).block()).isNotNull();
+    }
+
+    @Test
+    @Sql(scripts = "/scripts/cleanup_resource.sql")
+    @DisplayName("Пакетная загрузка: первый файл сохраняется, не дожидаясь остальных файлов медленного запроса")
+    void whenBatchBodyIsSlow_thenFirstFileIsStoredWithoutWaitingForOthers() throws IOException, URISyntaxException {
+        Metadata metadata = new Metadata(Bucket.COMMENT, Category.IMAGE);
+
+        BatchUploadResult first = storage.createResources(
+                        Mono.just(metadata),
+                        Flux.concat(
+                                Flux.just(createFilePart(ContentType.IMAGE_PNG, FileConstants.FROG)),
+                                Flux.never()))
+                .blockFirst(Duration.ofSeconds(5));
+
+        Assertions.assertThat(first.filename()).isEqualTo(FileConstants.FROG.getSourceName());
+        Assertions.assertThat(first.isCreated()).isTrue();
+    }
 }
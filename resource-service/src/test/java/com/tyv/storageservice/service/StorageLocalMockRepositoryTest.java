@@ -56,7 +56,7 @@ public class StorageLocalMockRepositoryTest {
     void whenDatabaseSavingWithError_thenFileShouldNotBeSaved() throws IOException, URISyntaxException {
         Metadata metadata = new Metadata(Bucket.COMMENT, Category.IMAGE);
 
-        Mockito.doThrow(new RuntimeException("Something went wrong"))
+        Mockito.doReturn(Mono.error(() -> new RuntimeException("Something went wrong")))
                 .when(resourceRepository)
                 .save(Mockito.any(StorageResource.class));
 
@@ -68,7 +68,7 @@ public class StorageLocalMockRepositoryTest {
                 .expectError()
                 .verify();
 
-        Assertions.assertThat(resourceRepository.count()).isZero();
+        Assertions.assertThat(resourceRepository.count().block()).isZero();
         Assertions.assertThat(isDirectoryEmptyRecursively(storagePath)).isFalse();
     }
 }
@@ -2,9 +2,13 @@ package com.tyv.storageservice.service;
 
 import com.tyv.storageservice.TestcontainersPostgresConfiguration;
 import com.tyv.storageservice.model.Metadata;
+import com.tyv.storageservice.model.ResourceFilter;
+import com.tyv.storageservice.model.ResourcePage;
+import com.tyv.storageservice.model.ResourceSummary;
 import com.tyv.storageservice.entity.StorageResource;
 import com.tyv.storageservice.enums.Bucket;
 import com.tyv.storageservice.enums.Category;
+import com.tyv.storageservice.exception.ResourceListingException;
 import com.tyv.storageservice.exception.ResourceNotFoundException;
 import com.tyv.storageservice.exception.ResourceReadingException;
 import com.tyv.storageservice.repository.ResourceRepository;
@@ -18,6 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.jdbc.Sql;
 import reactor.core.publisher.Flux;
@@ -27,6 +32,7 @@ import reactor.test.StepVerifier;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.*;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static com.tyv.storageservice.util.LocalStorageResourceUtil.*;
@@ -65,6 +71,100 @@ class StorageLocalTest {
                 .verifyComplete();
     }
 
+    @Test
+    @Sql(scripts = {
+            "/scripts/cleanup_resource.sql",
+            "/scripts/insert_resource.sql"})
+    @DisplayName("Ресурс с указанным UUID существует, вернуть поток данных")
+    void whenResourceExists_thenStreamFileData() throws IOException {
+        prepareTestDirectory(storagePath);
+        byte[] expected = readSourceFile(FileConstants.FROG);
+
+        Mono<byte[]> streamedData = storage.getFileStreamByUUID(Mono.just(FileConstants.FROG.getUuid()))
+                .flatMap(stream -> DataBufferUtils.join(stream.content())
+                        .map(dataBuffer -> {
+                            byte[] bytes = new byte[dataBuffer.readableByteCount()];
+                            dataBuffer.read(bytes);
+                            DataBufferUtils.release(dataBuffer);
+                            return bytes;
+                        }));
+
+        StepVerifier.create(streamedData)
+                .expectNextMatches(bytes -> Arrays.equals(bytes, expected))
+                .verifyComplete();
+    }
+
+    @Test
+    @Sql(scripts = {
+            "/scripts/cleanup_resource.sql",
+            "/scripts/insert_resource.sql"})
+    @DisplayName("Ресурс с указанным UUID существует, вернуть запрошенный диапазон байтов")
+    void whenResourceExists_thenStreamFileRegion() throws IOException {
+        prepareTestDirectory(storagePath);
+        byte[] expected = Arrays.copyOfRange(readSourceFile(FileConstants.FROG), 100, 200);
+
+        Mono<byte[]> streamedData = storage.getResourceByUUID(Mono.just(FileConstants.FROG.getUuid()))
+                .flatMap(resource -> storage.getFileStream(resource, 100, 100))
+                .flatMap(stream -> DataBufferUtils.join(stream.content())
+                        .map(dataBuffer -> {
+                            byte[] bytes = new byte[dataBuffer.readableByteCount()];
+                            dataBuffer.read(bytes);
+                            DataBufferUtils.release(dataBuffer);
+                            return bytes;
+                        }));
+
+        StepVerifier.create(streamedData)
+                .expectNextMatches(bytes -> Arrays.equals(bytes, expected))
+                .verifyComplete();
+    }
+
+    @Test
+    @Sql(scripts = "/scripts/cleanup_resource.sql")
+    @DisplayName("Список ресурсов по корзине, категории и дате читается страницами по курсору без пропусков и повторов")
+    void whenResourcesAreListedByPages_thenEveryMatchingResourceIsReturnedOnce() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 10, 17, 12, 0);
+        List<StorageResource> resources = List.of(
+                listedResource(createdAt, Bucket.PRODUCT, Category.IMAGE),
+                listedResource(createdAt, Bucket.PRODUCT, Category.IMAGE),
+                listedResource(createdAt.plusMinutes(1), Bucket.PRODUCT, Category.IMAGE),
+                listedResource(createdAt.plusMinutes(2), Bucket.PRODUCT, Category.TEXT),
+                listedResource(createdAt.plusMinutes(3), Bucket.USER, Category.IMAGE),
+                listedResource(createdAt.plusDays(1), Bucket.PRODUCT, Category.IMAGE));
+        resourceRepository.insertAll(resources).blockLast();
+        ResourceFilter filter = new ResourceFilter(Bucket.PRODUCT, Category.IMAGE, createdAt, createdAt.plusHours(1));
+
+        ResourcePage first = storage.findResources(filter, null, 2).block();
+        ResourcePage second = storage.findResources(filter, first.next(), 2).block();
+
+        Assertions.assertThat(first.items())
+                .extracting(ResourceSummary::uuid)
+                .containsExactly(resources.get(0).getUuid(), resources.get(1).getUuid());
+        Assertions.assertThat(second.items())
+                .extracting(ResourceSummary::uuid)
+                .containsExactly(resources.get(2).getUuid());
+        Assertions.assertThat(second.next()).isNull();
+
+        StepVerifier.create(storage.findResources(filter, "not-a-cursor", 2))
+                .expectError(ResourceListingException.class)
+                .verify();
+    }
+
+    @Test
+    @Sql(scripts = {
+            "/scripts/cleanup_resource.sql",
+            "/scripts/insert_resource.sql"})
+    @DisplayName("Поиск списка ресурсов возвращает только существующие ресурсы без повторов")
+    void whenFindResourcesByUUIDs_thenReturnOnlyExistingResources() {
+        UUID frogUUID = UUID.fromString(FileConstants.FROG.getUuid());
+
+        Flux<StorageResource> resources = storage.getResourcesByUUIDs(
+                List.of(UUID.randomUUID(), frogUUID, frogUUID));
+
+        StepVerifier.create(resources)
+                .expectNextMatches(resource -> resource.getUuid().equals(frogUUID))
+                .verifyComplete();
+    }
+
     @Test
     @Sql(scripts = "/scripts/cleanup_resource.sql")
     @DisplayName("Ресурс с указанным UUID не существует, сообщение об отсутствии ресурса")
@@ -103,7 +203,7 @@ class StorageLocalTest {
                 .expectComplete()
                 .verify();
 
-        Iterable<StorageResource> all = resourceRepository.findAll();
+        Iterable<StorageResource> all = resourceRepository.findAll().collectList().block();
 
         Assertions.assertThat(all).hasSize(1);
         StorageResource actual = all.iterator().next();
@@ -117,6 +217,7 @@ class StorageLocalTest {
         Assertions.assertThat(actual.getTitle()).isEqualTo(FileConstants.FROG.getSourceName());
         Assertions.assertThat(actual.getUuid()).isNotNull();
         Assertions.assertThat(actual.getPath()).isNotNull();
+        Assertions.assertThat(actual.getContentHash()).hasSize(64);
 
         Assertions.assertThat(Files.exists(storagePath
                 .resolve(actual.getBucket().toString().toLowerCase())
@@ -142,7 +243,7 @@ class StorageLocalTest {
                 .expectComplete()
                 .verify();
 
-        Iterable<StorageResource> all = resourceRepository.findAll();
+        Iterable<StorageResource> all = resourceRepository.findAll().collectList().block();
 
         Assertions.assertThat(all).hasSize(3);
         all.forEach(actual -> {
@@ -177,7 +278,7 @@ class StorageLocalTest {
                 .expectComplete()
                 .verify();
 
-        Assertions.assertThat(resourceRepository.findByUuid(UUID.fromString(FileConstants.FROG.getUuid())))
+        Assertions.assertThat(resourceRepository.findByUuid(UUID.fromString(FileConstants.FROG.getUuid())).blockOptional())
                         .isEmpty();
 
         Assertions.assertThat(isFilePresentRecursively(storagePath, FileConstants.FROG)).isFalse();
@@ -193,7 +294,7 @@ class StorageLocalTest {
                 .expectError(ResourceNotFoundException.class)
                 .verify();
 
-        Assertions.assertThat(resourceRepository.findByUuid(UUID.fromString(FileConstants.FROG.getUuid())))
+        Assertions.assertThat(resourceRepository.findByUuid(UUID.fromString(FileConstants.FROG.getUuid())).blockOptional())
                 .isEmpty();
 
         Assertions.assertThat(isFilePresentRecursively(storagePath, FileConstants.FROG)).isFalse();
@@ -211,9 +312,42 @@ class StorageLocalTest {
                 .expectError(RuntimeException.class)
                 .verify();
 
-        Assertions.assertThat(resourceRepository.findByUuid(UUID.fromString(FileConstants.FROG.getUuid())))
+        Assertions.assertThat(resourceRepository.findByUuid(UUID.fromString(FileConstants.FROG.getUuid())).blockOptional())
                 .isPresent();
 
         Assertions.assertThat(isFilePresentRecursively(storagePath, FileConstants.FROG)).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    @Sql(scripts = {
+            "/scripts/cleanup_resource.sql",
+            "/scripts/insert_resource.sql"})
+    @DisplayName("Пакетное удаление ресурсов, вернуть UUID только удалённых ресурсов")
+    void whenDeleteResourcesInBatch_thenReturnDeletedUUIDs() throws IOException {
+        prepareTestDirectory(storagePath);
+        UUID frogUUID = UUID.fromString(FileConstants.FROG.getUuid());
+
+        Mono<List<UUID>> deleted = storage.deleteResourcesByUUIDs(List.of(frogUUID, UUID.randomUUID()));
+
+        StepVerifier.create(deleted)
+                .expectNext(List.of(frogUUID))
+                .verifyComplete();
+
+        Assertions.assertThat(resourceRepository.findByUuid(frogUUID).blockOptional()).isEmpty();
+        Assertions.assertThat(isFilePresentRecursively(storagePath, FileConstants.FROG)).isFalse();
+    }
+
+    private StorageResource listedResource(LocalDateTime createdAt, Bucket bucket, Category category) {
+        UUID uuid = UUID.randomUUID();
+        return StorageResource.builder()
+                .createAt(createdAt)
+                .updateAt(createdAt)
+                .uuid(uuid)
+                .bucket(bucket)
+                .category(category)
+                .contentType(MediaType.IMAGE_PNG_VALUE)
+                .title("listed.png")
+                .path(uuid + "-listed.png")
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.model.ReconciliationReport;
+import com.tyv.storageservice.model.ResourcePath;
+import com.tyv.storageservice.model.StoredFile;
+import com.tyv.storageservice.repository.ResourcePathRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+class StorageReconcilerTest {
+    private static final Instant OLD_FILE = Instant.now().minus(Duration.ofDays(1));
+    private static final LocalDateTime OLD_ROW = LocalDateTime.now().minusDays(1);
+
+    private static final ResourcePath KEPT = row("b/kept.txt", OLD_ROW);
+    private static final ResourcePath DANGLING = row("b/missing.txt", OLD_ROW);
+    private static final ResourcePath UPLOADING = row("b/uploading.txt", LocalDateTime.now());
+    private static final ResourcePath DANGLING_AFTER_LAST_FILE = row("d/missing.txt", OLD_ROW);
+
+    private FileStorage fileStorage;
+    private ResourcePathRepository resourcePathRepository;
+    private Storage storage;
+    private MeterRegistry meterRegistry;
+    private StorageReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        fileStorage = Mockito.mock(FileStorage.class);
+        resourcePathRepository = Mockito.mock(ResourcePathRepository.class);
+        storage = Mockito.mock(Storage.class);
+        meterRegistry = new SimpleMeterRegistry();
+        reconciler = new StorageReconciler(fileStorage, resourcePathRepository, storage, meterRegistry,
+                Mockito.mock(JobLock.class));
+        ReflectionTestUtils.setField(reconciler, "pageSize", 1000);
+        ReflectionTestUtils.setField(reconciler, "rate", 1_000_000);
+        ReflectionTestUtils.setField(reconciler, "gracePeriod", Duration.ofHours(1));
+        ReflectionTestUtils.setField(reconciler, "maxDanglingRatio", 0.5);
+
+        Mockito.when(fileStorage.list(Mockito.any(), Mockito.anyInt())).thenReturn(Flux.empty());
+        Mockito.when(fileStorage.list(Bucket.PRODUCT, 1000)).thenReturn(Flux.just(List.of(
+                new StoredFile("a/orphan.txt", OLD_FILE),
+                new StoredFile("b/kept.txt", OLD_FILE),
+                new StoredFile("c/new.txt", Instant.now()))));
+        Mockito.when(fileStorage.exists(Mockito.any())).thenReturn(Mono.just(false));
+        Mockito.when(fileStorage.deleteFiles(Mockito.anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<StorageResource>>getArgument(0)));
+
+        Mockito.when(resourcePathRepository.countByBucket(Mockito.any())).thenReturn(Mono.just(0L));
+        Mockito.when(resourcePathRepository.countByBucket(Bucket.PRODUCT)).thenReturn(Mono.just(4L));
+        Mockito.when(resourcePathRepository.findInRange(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Flux.empty());
+        Mockito.when(resourcePathRepository.findInRange(Bucket.PRODUCT, "", "c/new.txt"))
+                .thenReturn(Flux.just(KEPT, DANGLING, UPLOADING));
+        Mockito.when(resourcePathRepository.findInRange(Bucket.PRODUCT, "c/new.txt", null))
+                .thenReturn(Flux.just(DANGLING_AFTER_LAST_FILE));
+        Mockito.when(resourcePathRepository.findReferencedPaths(Mockito.any(), Mockito.anyCollection()))
+                .thenReturn(Flux.empty());
+
+        Mockito.when(storage.deleteResourcesByUUIDs(Mockito.anyList()))
+                .thenAnswer(invocation -> Mono.just(invocation.<List<UUID>>getArgument(0)));
+    }
+
+    @Test
+    @DisplayName("Файлы без ресурсов и ресурсы без файлов старше периода ожидания удаляются")
+    void whenRepairIsEnabled_thenOrphanFilesAndDanglingResourcesAreDeleted() {
+        ReflectionTestUtils.setField(reconciler, "repair", true);
+
+        ReconciliationReport report = reconciler.reconcile().block();
+
+        Assertions.assertThat(report).isEqualTo(new ReconciliationReport(3, 1, 2));
+        ArgumentCaptor<List<StorageResource>> orphans = captor();
+        Mockito.verify(fileStorage).deleteFiles(orphans.capture());
+        Assertions.assertThat(orphans.getValue()).extracting(StorageResource::getPath).containsExactly("a/orphan.txt");
+        Mockito.verify(storage).deleteResourcesByUUIDs(List.of(DANGLING.uuid()));
+        Mockito.verify(storage).deleteResourcesByUUIDs(List.of(DANGLING_AFTER_LAST_FILE.uuid()));
+        Assertions.assertThat(meterRegistry.get("storage.reconciliation.dangling-resources")
+                .tag("bucket", "product").tag("action", "deleted").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Без режима исправления расхождения только учитываются")
+    void whenRepairIsDisabled_thenNothingIsDeleted() {
+        ReconciliationReport report = reconciler.reconcile().block();
+
+        Assertions.assertThat(report).isEqualTo(new ReconciliationReport(3, 1, 2));
+        Mockito.verify(fileStorage, Mockito.never()).deleteFiles(Mockito.anyList());
+        Mockito.verify(storage, Mockito.never()).deleteResourcesByUUIDs(Mockito.anyList());
+        Assertions.assertThat(meterRegistry.get("storage.reconciliation.orphan-files")
+                .tag("bucket", "product").tag("action", "found").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Ресурсы без файлов сверх допустимой доли строк корзины не удаляются")
+    void whenDanglingResourcesExceedMaxRatio_thenTheyAreNotDeleted() {
+        ReflectionTestUtils.setField(reconciler, "repair", true);
+        ReflectionTestUtils.setField(reconciler, "maxDanglingRatio", 0.25);
+
+        ReconciliationReport report = reconciler.reconcile().block();
+
+        Assertions.assertThat(report).isEqualTo(new ReconciliationReport(3, 1, 2));
+        Mockito.verify(fileStorage).deleteFiles(Mockito.anyList());
+        Mockito.verify(storage).deleteResourcesByUUIDs(List.of(DANGLING.uuid()));
+        Mockito.verify(storage, Mockito.never()).deleteResourcesByUUIDs(List.of(DANGLING_AFTER_LAST_FILE.uuid()));
+    }
+
+    @Test
+    @DisplayName("Если каталог корзины отсутствует, ресурсы корзины не удаляются")
+    void whenBucketDirectoryIsMissing_thenNoResourceIsDeleted(@TempDir Path storagePath) {
+        MappedFilePool mappedFilePool = new MappedFilePool(Schedulers.boundedElastic(), new SimpleMeterRegistry());
+        FileStorageLocal fileStorageLocal = new FileStorageLocal(Schedulers.boundedElastic(), mappedFilePool);
+        ReflectionTestUtils.setField(fileStorageLocal, "STORAGE_PATH", storagePath.toString());
+        StorageReconciler localReconciler = new StorageReconciler(fileStorageLocal, resourcePathRepository, storage,
+                meterRegistry, Mockito.mock(JobLock.class));
+        ReflectionTestUtils.setField(localReconciler, "pageSize", 1000);
+        ReflectionTestUtils.setField(localReconciler, "rate", 1_000_000);
+        ReflectionTestUtils.setField(localReconciler, "gracePeriod", Duration.ofHours(1));
+        ReflectionTestUtils.setField(localReconciler, "maxDanglingRatio", 1.0);
+        ReflectionTestUtils.setField(localReconciler, "repair", true);
+        Mockito.when(resourcePathRepository.findInRange(Bucket.PRODUCT, "", null))
+                .thenReturn(Flux.just(KEPT, DANGLING));
+
+        ReconciliationReport report = localReconciler.reconcile().block();
+
+        Assertions.assertThat(report).isEqualTo(ReconciliationReport.EMPTY);
+        Mockito.verify(storage, Mockito.never()).deleteResourcesByUUIDs(Mockito.anyList());
+    }
+
+    private static ResourcePath row(String path, LocalDateTime createdAt) {
+        return new ResourcePath(1L, UUID.randomUUID(), Bucket.PRODUCT, path, createdAt);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<StorageResource>> captor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+}
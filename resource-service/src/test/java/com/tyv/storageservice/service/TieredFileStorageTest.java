@@ -0,0 +1,200 @@
+package com.tyv.storageservice.service;
+
+import com.tyv.storageservice.entity.StorageResource;
+import com.tyv.storageservice.enums.Bucket;
+import com.tyv.storageservice.enums.LocalReadMode;
+import com.tyv.storageservice.model.ResourceStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+class TieredFileStorageTest {
+    private static final byte[] CONTENT = "tiered file content".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    private Path durablePath;
+
+    @TempDir
+    private Path tierPath;
+
+    private FileStorage durable;
+    private FileStorageLocal tier;
+    private MeterRegistry meterRegistry;
+    private TieredFileStorage tieredFileStorage;
+
+    @BeforeEach
+    void setUp() {
+        durable = Mockito.spy(localStorage(durablePath));
+        meterRegistry = new SimpleMeterRegistry();
+        tier = Mockito.spy(localStorage(tierPath));
+        tieredFileStorage = new TieredFileStorage(durable, tier, meterRegistry,
+                DataSize.ofMegabytes(1), DataSize.ofKilobytes(1));
+    }
+
+    @Test
+    @DisplayName("Одновременные промахи копируют файл на локальный диск один раз, затем он читается с диска")
+    void whenFileIsReadConcurrently_thenItIsCopiedToLocalDiskOnce() {
+        StorageResource resource = resource("2026-10-17/file.txt");
+        durable.save(resource, content()).block();
+
+        Flux.range(0, 8)
+                .flatMap(i -> tieredFileStorage.stream(resource).flatMap(stream -> DataBufferUtils.join(stream.content())))
+                .doOnNext(buffer -> Assertions.assertThat(bytes(buffer)).isEqualTo(CONTENT))
+                .blockLast();
+        awaitIndexedFiles(1);
+
+        Mockito.verify(tier, Mockito.times(1)).startUpload(resource);
+        Assertions.assertThat(tierPath.resolve("product/2026-10-17/file.txt")).hasBinaryContent(CONTENT);
+
+        durable.deleteFile(resource).block();
+        double hits = meterRegistry.counter("storage.tier.requests", "bucket", "product", "result", "hit").count();
+
+        Assertions.assertThat(read(tieredFileStorage.stream(resource, 7, 4)))
+                .isEqualTo("file".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertThat(meterRegistry.get("storage.tier.requests").tag("result", "hit").counter().count())
+                .isEqualTo(hits + 1);
+    }
+
+    @Test
+    @DisplayName("Запрос диапазона при промахе читает только диапазон из основного хранилища, файл копируется в фоне")
+    void whenRangeIsReadOnColdTier_thenItIsServedFromDurableStorage() {
+        StorageResource resource = resource("2026-10-17/file.txt");
+        durable.save(resource, content()).block();
+
+        Assertions.assertThat(read(tieredFileStorage.stream(resource, 7, 4)))
+                .isEqualTo("file".getBytes(StandardCharsets.UTF_8));
+        Mockito.verify(durable).stream(resource, 7, 4);
+
+        awaitIndexedFiles(1);
+        Assertions.assertThat(tierPath.resolve("product/2026-10-17/file.txt")).hasBinaryContent(CONTENT);
+        Mockito.clearInvocations(durable);
+
+        Assertions.assertThat(read(tieredFileStorage.stream(resource, 0, 6)))
+                .isEqualTo("tiered".getBytes(StandardCharsets.UTF_8));
+        Mockito.verify(durable, Mockito.never()).stream(Mockito.any(), Mockito.anyLong(), Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("При запуске удаляются незавершённые копии из каталога загрузок, готовые файлы индексируются")
+    void whenTierIsInitialized_thenStagingIsClearedAndFilesAreIndexed() throws IOException {
+        Path staging = Files.createDirectories(tierPath.resolve(".uploads")).resolve("interrupted");
+        Files.write(staging, CONTENT);
+        Path stored = Files.createDirectories(tierPath.resolve("product/2026-10-17")).resolve("file.txt");
+        Files.write(stored, CONTENT);
+
+        tieredFileStorage.init();
+        awaitIndexedFiles(1);
+
+        Assertions.assertThat(Files.exists(staging)).isFalse();
+        Assertions.assertThat(tieredFileStorage.contentLength(resource("2026-10-17/file.txt")).block())
+                .isEqualTo(CONTENT.length);
+        Mockito.verify(durable, Mockito.never()).contentLength(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Сохранённый файл записывается в оба уровня, удалённый пропадает из обоих")
+    void whenFileIsSavedAndDeleted_thenBothTiersAreUpdated() {
+        StorageResource resource = resource("2026-10-17/file.txt");
+
+        tieredFileStorage.save(resource, content()).block();
+
+        Assertions.assertThat(durablePath.resolve("product/2026-10-17/file.txt")).hasBinaryContent(CONTENT);
+        Assertions.assertThat(tierPath.resolve("product/2026-10-17/file.txt")).hasBinaryContent(CONTENT);
+        Assertions.assertThat(tieredFileStorage.contentLength(resource).block()).isEqualTo(CONTENT.length);
+        Mockito.verify(durable, Mockito.never()).contentLength(resource);
+
+        tieredFileStorage.deleteFile(resource).block();
+
+        Assertions.assertThat(Files.exists(durablePath.resolve("product/2026-10-17/file.txt"))).isFalse();
+        Assertions.assertThat(Files.exists(tierPath.resolve("product/2026-10-17/file.txt"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Файл больше max-file-size не копируется на локальный диск")
+    void whenFileIsLargerThanMaxFileSize_thenItIsReadFromDurableStorage() {
+        StorageResource resource = resource("large.bin");
+        durable.save(resource, Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[2048]))).block();
+
+        Assertions.assertThat(read(tieredFileStorage.stream(resource))).hasSize(2048);
+        Mockito.clearInvocations(durable);
+
+        Assertions.assertThat(tieredFileStorage.getData(resource).block().getData()).hasSize(2048);
+
+        Assertions.assertThat(Files.exists(tierPath.resolve("product/large.bin"))).isFalse();
+        Mockito.verify(durable, Mockito.never()).contentLength(resource);
+    }
+
+    @Test
+    @DisplayName("Сохранённый файл больше max-file-size остаётся только в основном хранилище")
+    void whenSavedFileIsLargerThanMaxFileSize_thenItIsNotKeptOnLocalDisk() {
+        StorageResource resource = resource("large.bin");
+
+        tieredFileStorage.save(resource, Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[2048])))
+                .block();
+
+        Assertions.assertThat(durablePath.resolve("product/large.bin")).hasSize(2048);
+        Assertions.assertThat(Files.exists(tierPath.resolve("product/large.bin"))).isFalse();
+        Assertions.assertThat(tieredFileStorage.getData(resource).block().getData()).hasSize(2048);
+        Assertions.assertThat(tieredFileStorage.contentLength(resource).block()).isEqualTo(2048);
+        Mockito.verify(durable, Mockito.never()).contentLength(resource);
+    }
+
+    private FileStorageLocal localStorage(Path path) {
+        MappedFilePool mappedFilePool = new MappedFilePool(Schedulers.boundedElastic(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(mappedFilePool, "poolSize", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(mappedFilePool, "maxFileSize", DataSize.ofKilobytes(64));
+        mappedFilePool.init();
+
+        FileStorageLocal fileStorage = new FileStorageLocal(Schedulers.boundedElastic(), mappedFilePool);
+        ReflectionTestUtils.setField(fileStorage, "STORAGE_PATH", path.toString());
+        ReflectionTestUtils.setField(fileStorage, "readMode", LocalReadMode.STREAM);
+        ReflectionTestUtils.setField(fileStorage, "batchConcurrency", 4);
+        return fileStorage;
+    }
+
+    /**
+     * Local copies are made in the background.
+     */
+    private void awaitIndexedFiles(long files) {
+        Flux.interval(Duration.ofMillis(10))
+                .filter(tick -> meterRegistry.get("cache.size").tag("cache", "storage.tier").gauge().value() >= files)
+                .blockFirst(Duration.ofSeconds(5));
+    }
+
+    private StorageResource resource(String path) {
+        return StorageResource.builder().bucket(Bucket.PRODUCT).path(path).build();
+    }
+
+    private Flux<DataBuffer> content() {
+        return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(CONTENT.clone()));
+    }
+
+    private byte[] read(Mono<ResourceStream> stream) {
+        return bytes(DataBufferUtils.join(stream.block().content()).block());
+    }
+
+    private byte[] bytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        return bytes;
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.util.MultiValueMap;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.nio.file.*;
 import java.time.LocalDate;
@@ -31,6 +32,13 @@ public class LocalStorageResourceUtil {
                 Files.readAllBytes(path));
     }
 
+    public static byte[] readSourceFile(FileConstants file) throws IOException {
+        try (InputStream inputStream = Objects.requireNonNull(
+                LocalStorageResourceUtil.class.getResourceAsStream(file.getSourcePath()))) {
+            return inputStream.readAllBytes();
+        }
+    }
+
     public static void prepareTestDirectory(Path path) throws IOException {
         Path productPath = path.resolve(PRODUCT.toString().toLowerCase()).resolve(LocalDate.now().toString());
         Path userPath = path.resolve(USER.toString().toLowerCase()).resolve(LocalDate.now().toString());
@@ -1 +1,3 @@
 TRUNCATE storage_resource RESTART IDENTITY;
+TRUNCATE storage_blob RESTART IDENTITY;
+TRUNCATE storage_upload_session RESTART IDENTITY CASCADE;